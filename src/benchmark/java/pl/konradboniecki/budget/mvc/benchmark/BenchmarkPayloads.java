@@ -0,0 +1,69 @@
+package pl.konradboniecki.budget.mvc.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntFunction;
+
+/**
+ * JSON bodies shaped like the paged responses of budget-management and family-management,
+ * with {@code size} items each. Every tenth item is null, as the clients have to skip them.
+ **/
+
+public final class BenchmarkPayloads {
+
+    private static final String BUDGET_ID = "5f0f1c2e-1d3a-4b5c-8d9e-0a1b2c3d4e5f";
+    private static final String FAMILY_ID = "a7b8c9d0-e1f2-4a3b-9c4d-5e6f7a8b9c0d";
+
+    private BenchmarkPayloads() {
+    }
+
+    public static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    public static byte[] jarPage(int size) {
+        return page(size, i -> String.format(
+                "{\"id\":\"jar-%d\",\"budgetId\":\"%s\",\"jarName\":\"Jar number %d\","
+                        + "\"capacity\":%d,\"currentAmount\":%d,\"status\":\"IN_PROGRESS\"}",
+                i, BUDGET_ID, i, 1000 + i, i));
+    }
+
+    public static byte[] expensePage(int size) {
+        return page(size, i -> String.format(
+                "{\"id\":\"expense-%d\",\"budgetId\":\"%s\",\"amount\":%d.5,"
+                        + "\"comment\":\"Groceries and household items %d\",\"created\":\"2023-03-01T10:15:30Z\"}",
+                i, BUDGET_ID, i, i));
+    }
+
+    public static byte[] invitationPage(int size) {
+        return page(size, i -> String.format(
+                "{\"id\":\"invitation-%d\",\"familyId\":\"%s\",\"email\":\"user%d@mail.com\","
+                        + "\"invitationCode\":\"code-%d\",\"created\":\"2023-03-01T10:15:30Z\",\"registered\":%b}",
+                i, FAMILY_ID, i, i, i % 2 == 0));
+    }
+
+    public static byte[] account() {
+        return ("{\"id\":\"account-1\",\"familyId\":\"" + FAMILY_ID + "\",\"firstName\":\"Kim\","
+                + "\"lastName\":\"Doe\",\"email\":\"Kim.Doe@mail.com\",\"enabled\":true,"
+                + "\"created\":\"2023-03-01T10:15:30Z\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] page(int size, IntFunction<String> item) {
+        StringBuilder json = new StringBuilder(size * 160 + 64).append("{\"items\":[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(i % 10 == 9 ? "null" : item.apply(i));
+        }
+        json.append("],\"meta\":{\"page\":0,\"limit\":").append(size)
+                .append(",\"elements\":").append(size).append(",\"totalPages\":1}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
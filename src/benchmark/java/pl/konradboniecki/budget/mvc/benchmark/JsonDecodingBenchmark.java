@@ -0,0 +1,85 @@
+package pl.konradboniecki.budget.mvc.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.konradboniecki.budget.mvc.model.Account;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpensePage;
+import pl.konradboniecki.budget.openapi.dto.model.OASInvitationPage;
+import pl.konradboniecki.budget.openapi.dto.model.OASJarPage;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson decoding of downstream response bodies: paged OAS DTOs and the account tree mapped by {@code Account(JsonNode)}.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main JsonDecodingBenchmark -prof gc"}.
+ * The gc profiler adds the allocation rate per operation ({@code gc.alloc.rate.norm}) to the throughput.
+ **/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonDecodingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int items;
+
+    private ObjectMapper objectMapper;
+    private byte[] jarPage;
+    private byte[] expensePage;
+    private byte[] invitationPage;
+    private byte[] account;
+    private JsonNode accountTree;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = BenchmarkPayloads.objectMapper();
+        jarPage = BenchmarkPayloads.jarPage(items);
+        expensePage = BenchmarkPayloads.expensePage(items);
+        invitationPage = BenchmarkPayloads.invitationPage(items);
+        account = BenchmarkPayloads.account();
+        accountTree = objectMapper.readTree(account);
+    }
+
+    @Benchmark
+    public OASJarPage decodeJarPage() throws IOException {
+        return objectMapper.readValue(jarPage, OASJarPage.class);
+    }
+
+    @Benchmark
+    public OASExpensePage decodeExpensePage() throws IOException {
+        return objectMapper.readValue(expensePage, OASExpensePage.class);
+    }
+
+    @Benchmark
+    public OASInvitationPage decodeInvitationPage() throws IOException {
+        return objectMapper.readValue(invitationPage, OASInvitationPage.class);
+    }
+
+    @Benchmark
+    public Account decodeAccount() throws IOException {
+        JsonNode tree = objectMapper.readTree(account);
+        return new Account(tree);
+    }
+
+    @Benchmark
+    public Account mapAccount() {
+        return new Account(accountTree);
+    }
+}
@@ -0,0 +1,144 @@
+package pl.konradboniecki.budget.mvc.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.client.RestTemplate;
+import pl.konradboniecki.budget.mvc.configuration.HttpClientConfig;
+import pl.konradboniecki.budget.mvc.configuration.HttpClientProperties;
+import pl.konradboniecki.budget.mvc.configuration.VirtualThreads;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares platform and virtual request threads for a page that makes several sequential downstream calls
+ * against a slow stub backend. Every simulated user renders pages one after another.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=pl.konradboniecki.budget.mvc.benchmark.VirtualThreadsBenchmark}
+ * and tune with -Dusers, -DpagesPerUser, -DcallsPerPage, -DbackendDelayMs, -DplatformThreads.
+ * The virtual-thread run needs a Java 21+ runtime.
+ **/
+
+public final class VirtualThreadsBenchmark {
+
+    private static final int USERS = Integer.getInteger("users", 1000);
+    private static final int PAGES_PER_USER = Integer.getInteger("pagesPerUser", 5);
+    private static final int CALLS_PER_PAGE = Integer.getInteger("callsPerPage", 4);
+    private static final int BACKEND_DELAY_MS = Integer.getInteger("backendDelayMs", 100);
+    private static final int PLATFORM_THREADS = Integer.getInteger("platformThreads", 200);
+    private static final byte[] STUB_BODY = "{\"items\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    private VirtualThreadsBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        HttpServer stub = startSlowStub();
+        try {
+            RestTemplate restTemplate = pooledRestTemplate();
+            String url = "http://localhost:" + stub.getAddress().getPort() + "/slow";
+            System.out.printf("users=%d pagesPerUser=%d callsPerPage=%d backendDelay=%dms%n",
+                    USERS, PAGES_PER_USER, CALLS_PER_PAGE, BACKEND_DELAY_MS);
+
+            run("platform threads (" + PLATFORM_THREADS + ")",
+                    Executors.newFixedThreadPool(PLATFORM_THREADS), restTemplate, url);
+            if (VirtualThreads.isSupported()) {
+                run("virtual threads", VirtualThreads.newVirtualThreadPerTaskExecutor("bench-vt-"), restTemplate, url);
+            } else {
+                System.out.println("virtual threads: skipped, runtime " + Runtime.version() + " is older than 21");
+            }
+        } finally {
+            stub.stop(0);
+        }
+    }
+
+    private static void run(String name, ExecutorService requestThreads, RestTemplate restTemplate, String url)
+            throws InterruptedException {
+        long[] pageLatencies = new long[USERS * PAGES_PER_USER];
+        AtomicInteger pageIndex = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(USERS);
+
+        long start = System.nanoTime();
+        for (int user = 0; user < USERS; user++) {
+            requestThreads.execute(() -> {
+                try {
+                    for (int page = 0; page < PAGES_PER_USER; page++) {
+                        long pageStart = System.nanoTime();
+                        for (int call = 0; call < CALLS_PER_PAGE; call++) {
+                            restTemplate.getForObject(url, String.class);
+                        }
+                        pageLatencies[pageIndex.getAndIncrement()] = System.nanoTime() - pageStart;
+                    }
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        requestThreads.shutdown();
+        requestThreads.awaitTermination(1, TimeUnit.MINUTES);
+
+        long[] completed = Arrays.copyOf(pageLatencies, pageIndex.get());
+        Arrays.sort(completed);
+        System.out.printf("%-28s pages/s=%8.1f p50=%6dms p99=%6dms max=%6dms failedUsers=%d%n",
+                name,
+                completed.length / (elapsed / 1_000_000_000.0),
+                percentileMillis(completed, 0.50),
+                percentileMillis(completed, 0.99),
+                percentileMillis(completed, 1.0),
+                failures.get());
+    }
+
+    private static long percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sortedNanos[Math.max(index, 0)]);
+    }
+
+    private static HttpServer startSlowStub() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), USERS);
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(BACKEND_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, STUB_BODY.length);
+            exchange.getResponseBody().write(STUB_BODY);
+            exchange.close();
+        });
+        server.setExecutor(VirtualThreads.isSupported()
+                ? VirtualThreads.newVirtualThreadPerTaskExecutor("stub-vt-")
+                : Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+
+    private static RestTemplate pooledRestTemplate() {
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setMaxConnectionsTotal(USERS);
+        properties.setMaxConnectionsPerRoute(USERS);
+        properties.setConnectionRequestTimeout(Duration.ofMinutes(1));
+        properties.setResponseTimeout(Duration.ofSeconds(30));
+        HttpClientConfig config = new HttpClientConfig();
+        PoolingHttpClientConnectionManager connectionManager =
+                config.downstreamConnectionManager(properties, new StandardEnvironment());
+        return new RestTemplate(config.downstreamRequestFactory(
+                config.downstreamHttpClient(connectionManager, properties)));
+    }
+}
@@ -0,0 +1,67 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.konradboniecki.budget.mvc.benchmark.BenchmarkPayloads;
+import pl.konradboniecki.budget.mvc.model.Invitation;
+import pl.konradboniecki.budget.openapi.dto.model.OASInvitation;
+import pl.konradboniecki.budget.openapi.dto.model.OASInvitationPage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Mapping of family-management invitation pages to domain models: from already decoded page DTOs,
+ * and straight from the response body with {@link PagedItemsDecoder}, which includes the JSON decoding.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main InvitationMappingBenchmark -prof gc"}.
+ **/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvitationMappingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int items;
+
+    private List<OASInvitation> invitations;
+    private byte[] invitationPage;
+
+    @Setup
+    public void setUp() throws IOException {
+        invitationPage = BenchmarkPayloads.invitationPage(items);
+        invitations = BenchmarkPayloads.objectMapper().readValue(invitationPage, OASInvitationPage.class).getItems();
+    }
+
+    @Benchmark
+    public List<Invitation> mapToInvitationList() {
+        return invitations.stream()
+                .filter(Objects::nonNull)
+                .map(FamilyManagementClient::toInvitation)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Invitation> streamDecodeInvitationPage() throws IOException {
+        return PagedItemsDecoder.decodeList(new ByteArrayInputStream(invitationPage),
+                FamilyManagementClient::readInvitation);
+    }
+}
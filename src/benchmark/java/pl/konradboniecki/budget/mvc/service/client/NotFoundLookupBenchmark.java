@@ -0,0 +1,109 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import pl.konradboniecki.budget.mvc.model.Family;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A lookup answered with 404, against an in-memory response: the exception path (HttpClientErrorException
+ * thrown by the default error handler, caught, and its stack trace rendered as logging it would) and the
+ * status-aware path of {@link NotFoundAsEmpty}. {@code callDepth} adds frames below the call,
+ * as the servlet filters and controllers do in the application.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main NotFoundLookupBenchmark -prof gc"}.
+ **/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotFoundLookupBenchmark {
+
+    private static final String FAMILY_URL = "http://localhost/api/family-mgt/v1/families/{familyId}";
+    private static final byte[] NOT_FOUND_BODY =
+            "{\"status\":404,\"message\":\"Family not found.\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"0", "150"})
+    private int callDepth;
+
+    private RestTemplate restTemplate;
+    private RestTemplate lookupTemplate;
+    private HttpHeaders headers;
+
+    @Setup
+    public void setUp() {
+        ClientHttpRequestFactory notFoundFactory = (uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            MockClientHttpResponse response = new MockClientHttpResponse(NOT_FOUND_BODY, HttpStatus.NOT_FOUND);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.setResponse(response);
+            return request;
+        };
+        restTemplate = new RestTemplate(notFoundFactory);
+        lookupTemplate = NotFoundAsEmpty.tolerantCopyOf(restTemplate);
+        headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+    }
+
+    @Benchmark
+    public Optional<Family> exceptionPath() {
+        return atDepth(callDepth, this::findByException);
+    }
+
+    @Benchmark
+    public Optional<Family> statusPath() {
+        return atDepth(callDepth, this::findByStatus);
+    }
+
+    private Optional<Family> findByException() {
+        try {
+            ResponseEntity<Family> responseEntity = restTemplate.exchange(FAMILY_URL, HttpMethod.GET,
+                    new HttpEntity<>(headers), Family.class, "1");
+            return Optional.ofNullable(responseEntity.getBody());
+        } catch (HttpClientErrorException e) {
+            if (e.getStackTrace().length < 0) {
+                throw e;
+            }
+            return Optional.empty();
+        }
+    }
+
+    private Optional<Family> findByStatus() {
+        return lookupTemplate.execute(FAMILY_URL, HttpMethod.GET,
+                PagedItemsDecoder.withHeaders(headers),
+                NotFoundAsEmpty.bodyOf(Family.class, lookupTemplate), "1");
+    }
+
+    private static Optional<Family> atDepth(int depth, Supplier<Optional<Family>> call) {
+        return depth == 0 ? call.get() : atDepth(depth - 1, call);
+    }
+}
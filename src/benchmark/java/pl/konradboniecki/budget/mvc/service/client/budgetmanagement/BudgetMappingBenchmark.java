@@ -0,0 +1,88 @@
+package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.konradboniecki.budget.mvc.benchmark.BenchmarkPayloads;
+import pl.konradboniecki.budget.mvc.model.Expense;
+import pl.konradboniecki.budget.mvc.model.Jar;
+import pl.konradboniecki.budget.mvc.service.client.PagedItemsDecoder;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpense;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpensePage;
+import pl.konradboniecki.budget.openapi.dto.model.OASJar;
+import pl.konradboniecki.budget.openapi.dto.model.OASJarPage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Mapping of budget-management pages to domain models: from already decoded page DTOs, and straight from
+ * the response body with {@link PagedItemsDecoder}, which includes the JSON decoding.
+ * Lives in the package of the clients to reach their package-private mappers.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main BudgetMappingBenchmark -prof gc"}.
+ **/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BudgetMappingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int items;
+
+    private List<OASJar> jars;
+    private List<OASExpense> expenses;
+    private byte[] jarPage;
+    private byte[] expensePage;
+
+    @Setup
+    public void setUp() throws IOException {
+        jarPage = BenchmarkPayloads.jarPage(items);
+        expensePage = BenchmarkPayloads.expensePage(items);
+        jars = BenchmarkPayloads.objectMapper().readValue(jarPage, OASJarPage.class).getItems();
+        expenses = BenchmarkPayloads.objectMapper().readValue(expensePage, OASExpensePage.class).getItems();
+    }
+
+    @Benchmark
+    public List<Jar> mapToJarList() {
+        return jars.stream()
+                .filter(Objects::nonNull)
+                .map(JarManagementClient::toJar)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Expense> mapToExpenseList() {
+        return expenses.stream()
+                .filter(Objects::nonNull)
+                .map(ExpenseManagementClient::toExpense)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Jar> streamDecodeJarPage() throws IOException {
+        return PagedItemsDecoder.decodeList(new ByteArrayInputStream(jarPage), JarManagementClient::readJar);
+    }
+
+    @Benchmark
+    public List<Expense> streamDecodeExpensePage() throws IOException {
+        return PagedItemsDecoder.decodeList(new ByteArrayInputStream(expensePage), ExpenseManagementClient::readExpense);
+    }
+}
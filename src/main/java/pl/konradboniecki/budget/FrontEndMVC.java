@@ -1,10 +1,17 @@
 package pl.konradboniecki.budget;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.web.client.RestTemplate;
+import pl.konradboniecki.budget.mvc.service.client.AttemptInterceptor;
 import pl.konradboniecki.chassis.ChassisApplication;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 @ChassisApplication
 public class FrontEndMVC {
 
@@ -13,8 +20,15 @@ public class FrontEndMVC {
 	}
 
 	@Bean
-	public RestTemplate restTemplate() {
-		return new RestTemplate();
+	public RestTemplate restTemplate(ClientHttpRequestFactory downstreamRequestFactory,
+									 ObjectProvider<ClientHttpRequestInterceptor> downstreamInterceptors) {
+		List<ClientHttpRequestInterceptor> interceptors = downstreamInterceptors.orderedStream()
+				.collect(Collectors.toList());
+		RestTemplate restTemplate = new RestTemplate(AttemptInterceptor.layered(downstreamRequestFactory, interceptors));
+		restTemplate.setInterceptors(interceptors.stream()
+				.filter(interceptor -> !(interceptor instanceof AttemptInterceptor))
+				.collect(Collectors.toList()));
+		return restTemplate;
 	}
 }
 
@@ -0,0 +1,42 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import pl.konradboniecki.budget.mvc.service.client.CallAccountingInterceptor;
+
+@Configuration
+public class CallAccountingConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatedCallThreshold;
+    private final boolean serverTiming;
+
+    public CallAccountingConfig(MeterRegistry meterRegistry,
+                                @Value("${budget.accounting.repeated-call-threshold:5}") int repeatedCallThreshold,
+                                @Value("${budget.accounting.server-timing:true}") boolean serverTiming) {
+        this.meterRegistry = meterRegistry;
+        this.repeatedCallThreshold = repeatedCallThreshold;
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new CallAccountingHandlerInterceptor(meterRegistry, repeatedCallThreshold, serverTiming));
+    }
+
+    /**
+     * Runs inside the deadline check and the circuit breaker, so calls that were never made are not counted,
+     * and outside retries and hedging, so a call counts once with the time of all its attempts.
+     **/
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 150)
+    public CallAccountingInterceptor callAccountingInterceptor() {
+        return new CallAccountingInterceptor();
+    }
+}
@@ -0,0 +1,84 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import pl.konradboniecki.budget.mvc.service.client.RequestCallLog;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the downstream calls of each handled request: a {@code Server-Timing} header before the view is rendered,
+ * metrics tagged by the handler's URI pattern, and a warning for endpoints called repeatedly (a likely N+1).
+ * Calls made while the view is rendered, like the chunks of a streamed expense history, come after the header
+ * is written and are left out of it; they are still counted in the metrics.
+ **/
+
+@Slf4j
+public class CallAccountingHandlerInterceptor implements HandlerInterceptor {
+
+    static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatedCallThreshold;
+    private final boolean serverTiming;
+
+    public CallAccountingHandlerInterceptor(MeterRegistry meterRegistry, int repeatedCallThreshold,
+                                            boolean serverTiming) {
+        this.meterRegistry = meterRegistry;
+        this.repeatedCallThreshold = repeatedCallThreshold;
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (serverTiming && !response.isCommitted()) {
+            RequestCallLog.of(request)
+                    .filter(callLog -> callLog.totalCalls() > 0)
+                    .ifPresent(callLog -> response.setHeader(SERVER_TIMING_HEADER, callLog.serverTiming()));
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        String uri = uriPatternOf(request);
+        RequestCallLog callLog = RequestCallLog.of(request)
+                .filter(requestLog -> requestLog.totalCalls() > 0)
+                .orElse(null);
+        int calls = callLog == null ? 0 : callLog.totalCalls();
+        DistributionSummary.builder("budget.request.downstream.calls")
+                .description("Downstream calls made to serve one request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(calls);
+        if (callLog == null) {
+            return;
+        }
+        Timer.builder("budget.request.downstream.time")
+                .description("Time spent in downstream calls while serving one request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(callLog.totalNanos(), TimeUnit.NANOSECONDS);
+        callLog.endpoints().forEach((endpoint, endpointCalls) -> {
+            if (endpointCalls.getCount() > repeatedCallThreshold) {
+                log.warn("{} was called {} times while serving {} {}, consider fetching in bulk.",
+                        endpoint, endpointCalls.getCount(), request.getMethod(), uri);
+                meterRegistry.counter("budget.request.downstream.repeated", "uri", uri, "endpoint", endpoint)
+                        .increment();
+            }
+        });
+    }
+
+    private static String uriPatternOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+}
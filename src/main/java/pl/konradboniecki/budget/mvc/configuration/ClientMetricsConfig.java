@@ -0,0 +1,18 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import pl.konradboniecki.budget.mvc.service.client.ResponseSizeInterceptor;
+
+@Configuration
+public class ClientMetricsConfig {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 200)
+    public ResponseSizeInterceptor responseSizeInterceptor(MeterRegistry meterRegistry) {
+        return new ResponseSizeInterceptor(meterRegistry);
+    }
+}
@@ -0,0 +1,51 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import pl.konradboniecki.budget.mvc.service.client.RequestDeadline;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Request factory that shortens the response and pool wait timeouts of a call
+ * to the time left until the request deadline, when that is less than the configured timeouts.
+ **/
+
+public class DeadlineAwareRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final RequestConfig defaultRequestConfig;
+    private final Duration responseTimeout;
+    private final Duration connectionRequestTimeout;
+
+    public DeadlineAwareRequestFactory(HttpClient httpClient, RequestConfig defaultRequestConfig,
+                                       Duration responseTimeout, Duration connectionRequestTimeout) {
+        super(httpClient);
+        this.defaultRequestConfig = defaultRequestConfig;
+        this.responseTimeout = responseTimeout;
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    @Override
+    protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+        Optional<Duration> remaining = RequestDeadline.remaining();
+        if (remaining.isEmpty() || remaining.get().compareTo(responseTimeout) >= 0) {
+            return null;
+        }
+        // an exceeded deadline is rejected before the call; here at least a millisecond is left to try
+        long remainingMillis = Math.max(remaining.get().toMillis(), 1);
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.copy(defaultRequestConfig)
+                .setResponseTimeout(Timeout.ofMilliseconds(remainingMillis))
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(
+                        Math.min(remainingMillis, connectionRequestTimeout.toMillis())))
+                .build());
+        return context;
+    }
+}
@@ -0,0 +1,40 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import pl.konradboniecki.budget.mvc.service.client.DownstreamUnavailableException;
+
+import java.io.IOException;
+
+/**
+ * DownstreamAwareAuthenticationFailureHandler shows the degraded error view when a login fails because
+ * a downstream service is cut off, the same way DownstreamUnavailableAdvice does for controllers.
+ * Other login failures are redirected to the failure url.
+ **/
+
+@Slf4j
+public class DownstreamAwareAuthenticationFailureHandler extends SimpleUrlAuthenticationFailureHandler {
+
+    public static final String SERVICE_UNAVAILABLE_PATH = "/serviceUnavailable";
+
+    public DownstreamAwareAuthenticationFailureHandler(String defaultFailureUrl) {
+        super(defaultFailureUrl);
+    }
+
+    @Override
+    public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
+                                        AuthenticationException exception) throws IOException, ServletException {
+        if (exception.getCause() instanceof DownstreamUnavailableException downstreamUnavailable) {
+            log.warn("Failing login fast: {}", downstreamUnavailable.getMessage());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            request.getRequestDispatcher(SERVICE_UNAVAILABLE_PATH).forward(request, response);
+            return;
+        }
+        super.onAuthenticationFailure(request, response, exception);
+    }
+}
@@ -0,0 +1,52 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import pl.konradboniecki.budget.mvc.service.client.EndpointLatencies;
+import pl.konradboniecki.budget.mvc.service.client.HedgeBudget;
+import pl.konradboniecki.budget.mvc.service.client.HedgingInterceptor;
+
+@Configuration
+@EnableConfigurationProperties(HedgingProperties.class)
+@ConditionalOnProperty(name = "budget.hedging.enabled", havingValue = "true")
+public class HedgingConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor hedgingExecutor(HedgingProperties properties,
+            @Value("${budget.virtual-threads.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        // no queue: an attempt that cannot start right away is not hedged
+        executor.setQueueCapacity(0);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("hedging-");
+        if (virtualThreads) {
+            executor.setThreadFactory(VirtualThreads.newThreadFactory("hedging-vt-"));
+        }
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        return executor;
+    }
+
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public HedgingInterceptor hedgingInterceptor(HedgingProperties properties,
+                                                 ThreadPoolTaskExecutor hedgingExecutor,
+                                                 MeterRegistry meterRegistry) {
+        return new HedgingInterceptor(
+                new EndpointLatencies(properties.getWindowSize()),
+                new HedgeBudget(properties.getBudgetPercent(), properties.getMaxBurst()),
+                hedgingExecutor,
+                properties.getPercentile(),
+                properties.getMinimumSamples(),
+                properties.getMinimumDelay(),
+                meterRegistry);
+    }
+}
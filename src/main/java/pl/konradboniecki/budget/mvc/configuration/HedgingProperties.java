@@ -0,0 +1,25 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of hedged downstream GETs. A second attempt is sent when the first one is slower than
+ * {@code percentile} of recent responses of the same endpoint, at most {@code budgetPercent} extra requests overall.
+ **/
+
+@Data
+@ConfigurationProperties(prefix = "budget.hedging")
+public class HedgingProperties {
+
+    private boolean enabled = false;
+    private double percentile = 0.95;
+    private int windowSize = 256;
+    private int minimumSamples = 50;
+    private Duration minimumDelay = Duration.ofMillis(10);
+    private double budgetPercent = 5;
+    private int maxBurst = 10;
+    private int poolSize = 20;
+}
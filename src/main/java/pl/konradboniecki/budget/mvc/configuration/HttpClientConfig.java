@@ -0,0 +1,132 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class HttpClientConfig {
+
+    private static final String POOL_METRIC_PREFIX = "budget.http.client.pool.";
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager downstreamConnectionManager(HttpClientProperties properties,
+                                                                         Environment environment) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnectionsTotal())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setConnectionTimeToLive(toTimeValue(properties.getTimeToLive().toMillis()))
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoTimeout(Timeout.ofMilliseconds(properties.getResponseTimeout().toMillis()))
+                        .build())
+                .build();
+
+        Map<HttpRoute, Map<String, Integer>> limitsByRoute = new LinkedHashMap<>();
+        properties.getMaxConnectionsPerDownstream().forEach((downstream, maxConnections) -> {
+            String baseUrl = environment.getProperty("budget.baseUrl." + downstream);
+            if (baseUrl == null) {
+                log.warn("No budget.baseUrl.{} defined, connection limit for this downstream is ignored.", downstream);
+                return;
+            }
+            limitsByRoute.computeIfAbsent(toRoute(baseUrl), route -> new TreeMap<>()).put(downstream, maxConnections);
+        });
+        limitsByRoute.forEach((route, limits) -> {
+            int limit = Collections.max(limits.values());
+            if (limits.size() > 1) {
+                log.warn("Downstreams {} share the route {}, so the largest of their connection limits, {}, "
+                        + "applies to all of them together.", limits.keySet(), route.getTargetHost(), limit);
+            }
+            connectionManager.setMaxPerRoute(route, limit);
+            log.info("Connection limit for {} ({}) set to {}.", limits.keySet(), route.getTargetHost(), limit);
+        });
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient downstreamHttpClient(PoolingHttpClientConnectionManager downstreamConnectionManager,
+                                                    HttpClientProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(downstreamConnectionManager)
+                .setDefaultRequestConfig(toRequestConfig(properties))
+                .evictExpiredConnections()
+                .evictIdleConnections(toTimeValue(properties.getIdleEviction().toMillis()))
+                .build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory downstreamRequestFactory(CloseableHttpClient downstreamHttpClient,
+                                                             HttpClientProperties properties) {
+        return new DeadlineAwareRequestFactory(downstreamHttpClient, toRequestConfig(properties),
+                properties.getResponseTimeout(), properties.getConnectionRequestTimeout());
+    }
+
+    @Bean
+    public MeterBinder downstreamConnectionPoolMetrics(PoolingHttpClientConnectionManager downstreamConnectionManager) {
+        return registry -> {
+            registerPoolGauge(registry, downstreamConnectionManager, "leased", PoolStats::getLeased,
+                    "Connections currently leased to downstream calls");
+            registerPoolGauge(registry, downstreamConnectionManager, "pending", PoolStats::getPending,
+                    "Downstream calls waiting for a free connection");
+            registerPoolGauge(registry, downstreamConnectionManager, "available", PoolStats::getAvailable,
+                    "Idle connections kept alive in the pool");
+            registerPoolGauge(registry, downstreamConnectionManager, "max", PoolStats::getMax,
+                    "Maximum number of pooled connections");
+        };
+    }
+
+    private void registerPoolGauge(MeterRegistry registry,
+                                   PoolingHttpClientConnectionManager connectionManager,
+                                   String name, ToDoubleFunction<PoolStats> stat, String description) {
+        Gauge.builder(POOL_METRIC_PREFIX + name, connectionManager, cm -> stat.applyAsDouble(cm.getTotalStats()))
+                .description(description)
+                .register(registry);
+    }
+
+    private static RequestConfig toRequestConfig(HttpClientProperties properties) {
+        return RequestConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeout().toMillis()))
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getConnectionRequestTimeout().toMillis()))
+                .setResponseTimeout(Timeout.ofMilliseconds(properties.getResponseTimeout().toMillis()))
+                .setConnectionKeepAlive(toTimeValue(properties.getKeepAlive().toMillis()))
+                .build();
+    }
+
+    static HttpRoute toRoute(String baseUrl) {
+        URI uri = URI.create(baseUrl);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getScheme(), uri.getHost(), port), null, secure);
+    }
+
+    private static TimeValue toTimeValue(long millis) {
+        return TimeValue.ofMilliseconds(millis);
+    }
+}
@@ -0,0 +1,31 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the pooled HTTP engine shared by all downstream clients.
+ * Keys of {@code maxConnectionsPerDownstream} are names from {@code budget.baseUrl}, e.g. {@code accountManagement}.
+ * A limit replaces {@code maxConnectionsPerRoute} for the route of that downstream, so it may also be lower.
+ * Connections are pooled per route (scheme, host and port), so downstreams behind the same route, e.g. one gateway,
+ * share a single pool; the largest of their limits applies to it.
+ **/
+
+@Data
+@ConfigurationProperties(prefix = "budget.http-client")
+public class HttpClientProperties {
+
+    private int maxConnectionsTotal = 200;
+    private int maxConnectionsPerRoute = 50;
+    private Map<String, Integer> maxConnectionsPerDownstream = new HashMap<>();
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+    private Duration responseTimeout = Duration.ofSeconds(5);
+    private Duration keepAlive = Duration.ofSeconds(30);
+    private Duration idleEviction = Duration.ofSeconds(30);
+    private Duration timeToLive = Duration.ofMinutes(5);
+}
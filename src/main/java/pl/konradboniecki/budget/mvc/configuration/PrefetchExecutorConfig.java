@@ -0,0 +1,28 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class PrefetchExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor prefetchExecutor(
+            @Value("${budget.prefetch.pool-size:4}") int poolSize,
+            @Value("${budget.prefetch.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("prefetch-");
+        // no request context on purpose: prefetches outlive the login request and fill the shared caches only
+        // a full queue drops the prefetch, the login must never wait for it
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
@@ -0,0 +1,59 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import pl.konradboniecki.budget.mvc.service.client.CallAccountingInterceptor;
+import pl.konradboniecki.budget.mvc.service.client.DeadlinePropagationInterceptor;
+import pl.konradboniecki.budget.mvc.service.client.DownstreamResilienceInterceptor;
+import pl.konradboniecki.budget.mvc.service.client.ResponseSizeInterceptor;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Non-blocking transport used by the Reactive*Client beans, enabled with budget.client.reactive.enabled.
+ * Pool limits and timeouts are shared with the blocking engine (budget.http-client).
+ * Calls pass the same deadline, circuit breaker and bulkhead, call accounting and response size checks
+ * as RestTemplate calls, in the same order. Retries and hedging are only done by the blocking engine.
+ * The Blocking*ClientAdapter beans still wait for every call on the thread serving the request.
+ **/
+
+@Configuration
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class ReactiveClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider downstreamConnectionProvider(HttpClientProperties properties) {
+        return ConnectionProvider.builder("downstream")
+                .maxConnections(properties.getMaxConnectionsTotal())
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getIdleEviction())
+                .maxLifeTime(properties.getTimeToLive())
+                .evictInBackground(properties.getIdleEviction())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient downstreamWebClient(WebClient.Builder webClientBuilder,
+                                         ConnectionProvider downstreamConnectionProvider,
+                                         HttpClientProperties properties,
+                                         DeadlinePropagationInterceptor deadlinePropagationInterceptor,
+                                         DownstreamResilienceInterceptor downstreamResilienceInterceptor,
+                                         CallAccountingInterceptor callAccountingInterceptor,
+                                         ResponseSizeInterceptor responseSizeInterceptor) {
+        HttpClient httpClient = HttpClient.create(downstreamConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout());
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(deadlinePropagationInterceptor)
+                .filter(downstreamResilienceInterceptor)
+                .filter(callAccountingInterceptor)
+                .filter(responseSizeInterceptor)
+                .build();
+    }
+}
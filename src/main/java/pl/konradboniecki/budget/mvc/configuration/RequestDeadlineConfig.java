@@ -0,0 +1,66 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import pl.konradboniecki.budget.mvc.service.client.DeadlinePropagationInterceptor;
+import pl.konradboniecki.budget.mvc.service.client.RequestDeadline;
+
+import java.time.Duration;
+
+/**
+ * Every handled request gets a deadline of {@code budget.deadline.request-timeout},
+ * or less when the gateway passes a shorter timeout in {@link RequestDeadline#TIMEOUT_HEADER}.
+ * A header that is not a number of milliseconds, or is negative, is ignored.
+ **/
+
+@Configuration
+public class RequestDeadlineConfig implements WebMvcConfigurer {
+
+    private final Duration requestTimeout;
+
+    public RequestDeadlineConfig(@Value("${budget.deadline.request-timeout:10s}") Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                RequestDeadline.start(request, timeoutOf(request));
+                return true;
+            }
+        });
+    }
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 50)
+    public DeadlinePropagationInterceptor deadlinePropagationInterceptor(MeterRegistry meterRegistry) {
+        return new DeadlinePropagationInterceptor(meterRegistry);
+    }
+
+    Duration timeoutOf(HttpServletRequest request) {
+        String header = request.getHeader(RequestDeadline.TIMEOUT_HEADER);
+        if (header == null) {
+            return requestTimeout;
+        }
+        try {
+            Duration callerTimeout = Duration.ofMillis(Long.parseLong(header.trim()));
+            if (callerTimeout.isNegative()) {
+                return requestTimeout;
+            }
+            return callerTimeout.compareTo(requestTimeout) < 0 ? callerTimeout : requestTimeout;
+        } catch (NumberFormatException e) {
+            return requestTimeout;
+        }
+    }
+}
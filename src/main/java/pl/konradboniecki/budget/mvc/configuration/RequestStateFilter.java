@@ -0,0 +1,46 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import pl.konradboniecki.budget.mvc.service.client.RequestCallLog;
+import pl.konradboniecki.budget.mvc.service.client.RequestIdentityMap;
+
+import java.io.IOException;
+
+/**
+ * RequestStateFilter creates the per-request state of the downstream clients before the security filter chain,
+ * so it exists before the first downstream call of the request and is only ever read afterwards,
+ * also from worker threads.
+ **/
+
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class RequestStateFilter extends OncePerRequestFilter {
+
+    private final RequestIdentityMap requestIdentityMap;
+
+    @Autowired
+    public RequestStateFilter(RequestIdentityMap requestIdentityMap) {
+        this.requestIdentityMap = requestIdentityMap;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestCallLog.attach(request);
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            requestIdentityMap.attach(requestAttributes);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
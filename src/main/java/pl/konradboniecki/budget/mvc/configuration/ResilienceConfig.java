@@ -0,0 +1,91 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import pl.konradboniecki.budget.mvc.service.client.Downstream;
+import pl.konradboniecki.budget.mvc.service.client.DownstreamResilienceInterceptor;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ResilienceConfig {
+
+    @Bean
+    public CircuitBreakerRegistry downstreamCircuitBreakerRegistry(ResilienceProperties properties) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+        for (Downstream downstream : Downstream.values()) {
+            ResilienceProperties.Settings settings = properties.settingsOf(downstream.getServiceName());
+            registry.circuitBreaker(downstream.getServiceName(), CircuitBreakerConfig.custom()
+                    .failureRateThreshold(settings.getFailureRateThreshold())
+                    .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                    .slowCallDurationThreshold(settings.getSlowCallDuration())
+                    .slidingWindowSize(settings.getSlidingWindowSize())
+                    .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                    .waitDurationInOpenState(settings.getWaitDurationInOpenState())
+                    .permittedNumberOfCallsInHalfOpenState(settings.getPermittedCallsInHalfOpenState())
+                    .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                    .build());
+        }
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry downstreamBulkheadRegistry(ResilienceProperties properties) {
+        BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+        for (Downstream downstream : Downstream.values()) {
+            ResilienceProperties.Settings settings = properties.settingsOf(downstream.getServiceName());
+            registry.bulkhead(downstream.getServiceName(), BulkheadConfig.custom()
+                    .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+                    .maxWaitDuration(settings.getMaxWaitDuration())
+                    .build());
+        }
+        return registry;
+    }
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 100)
+    public DownstreamResilienceInterceptor downstreamResilienceInterceptor(CircuitBreakerRegistry downstreamCircuitBreakerRegistry,
+                                                                           BulkheadRegistry downstreamBulkheadRegistry) {
+        return new DownstreamResilienceInterceptor(downstreamCircuitBreakerRegistry, downstreamBulkheadRegistry);
+    }
+
+    @Bean
+    public MeterBinder downstreamResilienceMetrics(CircuitBreakerRegistry downstreamCircuitBreakerRegistry,
+                                                   BulkheadRegistry downstreamBulkheadRegistry) {
+        return registry -> {
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(downstreamCircuitBreakerRegistry).bindTo(registry);
+            TaggedBulkheadMetrics.ofBulkheadRegistry(downstreamBulkheadRegistry).bindTo(registry);
+            downstreamCircuitBreakerRegistry.getAllCircuitBreakers()
+                    .forEach(circuitBreaker -> registerTransitions(registry, circuitBreaker));
+        };
+    }
+
+    private void registerTransitions(MeterRegistry registry, CircuitBreaker circuitBreaker) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            log.warn("Circuit breaker of {} changed from {} to {}.",
+                    event.getCircuitBreakerName(), transition.getFromState(), transition.getToState());
+            Counter.builder("budget.client.circuit-breaker.transitions")
+                    .description("State transitions of downstream circuit breakers")
+                    .tag("downstream", event.getCircuitBreakerName())
+                    .tag("from", transition.getFromState().name())
+                    .tag("to", transition.getToState().name())
+                    .register(registry)
+                    .increment();
+        });
+    }
+}
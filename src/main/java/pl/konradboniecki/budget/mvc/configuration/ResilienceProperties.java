@@ -0,0 +1,39 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker and bulkhead settings of the downstream services.
+ * Keys of {@code downstreams} are names from {@code budget.baseUrl}, e.g. {@code budgetManagement};
+ * a downstream without its own entry uses {@code defaults}.
+ **/
+
+@Data
+@ConfigurationProperties(prefix = "budget.resilience")
+public class ResilienceProperties {
+
+    private Settings defaults = new Settings();
+    private Map<String, Settings> downstreams = new HashMap<>();
+
+    public Settings settingsOf(String serviceName) {
+        return downstreams.getOrDefault(serviceName, defaults);
+    }
+
+    @Data
+    public static class Settings {
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 80;
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+        private int slidingWindowSize = 50;
+        private int minimumNumberOfCalls = 20;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+        private int permittedCallsInHalfOpenState = 3;
+        private int maxConcurrentCalls = 25;
+        private Duration maxWaitDuration = Duration.ZERO;
+    }
+}
@@ -0,0 +1,39 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import pl.konradboniecki.budget.mvc.service.client.RetryBudget;
+import pl.konradboniecki.budget.mvc.service.client.RetryInterceptor;
+
+import java.util.Map;
+import java.util.Set;
+
+@Configuration
+@EnableConfigurationProperties(RetryProperties.class)
+@ConditionalOnProperty(name = "budget.retry.enabled", havingValue = "true", matchIfMissing = true)
+public class RetryConfig {
+
+    /**
+     * An attempt interceptor: it runs below all per-call interceptors, so the circuit breaker sees one call
+     * per retried request, and above hedging, so every attempt may be hedged.
+     **/
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE - 100)
+    public RetryInterceptor retryInterceptor(RetryProperties properties, MeterRegistry meterRegistry) {
+        return new RetryInterceptor(
+                new RetryBudget(properties.getBudgetPercent(), properties.getMinRetriesPerSecond(),
+                        properties.getMaxBurst()),
+                properties.getMaxAttempts(),
+                properties.getBaseDelay(),
+                properties.getMaxDelay(),
+                Set.copyOf(properties.getIdempotentMethods()),
+                Set.copyOf(properties.getRetryableStatuses()),
+                Map.copyOf(properties.getMaxAttemptsPerEndpoint()),
+                meterRegistry);
+    }
+}
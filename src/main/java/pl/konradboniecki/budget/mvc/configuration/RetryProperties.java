@@ -0,0 +1,31 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Retry policy of downstream calls. Keys of {@code max-attempts-per-endpoint} are endpoints with ids folded,
+ * e.g. {@code "[GET /api/family-mgt/v1/families/{id}]"}; 1 turns retries off for that endpoint.
+ **/
+
+@Data
+@ConfigurationProperties(prefix = "budget.retry")
+public class RetryProperties {
+
+    private boolean enabled = true;
+    private int maxAttempts = 3;
+    private Duration baseDelay = Duration.ofMillis(50);
+    private Duration maxDelay = Duration.ofSeconds(1);
+    private Set<HttpMethod> idempotentMethods = Set.of(HttpMethod.GET, HttpMethod.DELETE);
+    private Set<Integer> retryableStatuses = Set.of(500, 502, 503, 504);
+    private Map<String, Integer> maxAttemptsPerEndpoint = new HashMap<>();
+    private double budgetPercent = 10;
+    private double minRetriesPerSecond = 5;
+    private int maxBurst = 20;
+}
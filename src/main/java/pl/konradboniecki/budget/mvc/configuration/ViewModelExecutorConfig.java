@@ -0,0 +1,32 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ViewModelExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor viewModelExecutor(
+            @Value("${budget.view-model.pool-size:50}") int poolSize,
+            @Value("${budget.view-model.queue-capacity:200}") int queueCapacity,
+            @Value("${budget.virtual-threads.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("view-model-");
+        if (virtualThreads) {
+            executor.setThreadFactory(VirtualThreads.newThreadFactory("view-model-vt-"));
+        }
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        // a saturated pool degrades to the sequential behaviour instead of failing the page
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
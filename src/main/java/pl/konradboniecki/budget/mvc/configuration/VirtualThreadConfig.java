@@ -0,0 +1,42 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Opt-in mode (budget.virtual-threads.enabled) running every servlet request on its own virtual thread.
+ * Downstream clients are called from the request thread, so their blocking I/O runs on virtual threads as well.
+ * Requires a Java 21+ runtime: the shipped Docker image and the CI build run Java 17, where enabling the mode
+ * fails the startup. It stays off until those images move to Java 21.
+ **/
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "budget.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService requestHandlingExecutor() {
+        log.info("Serving requests on virtual threads, runtime: {}", Runtime.version());
+        return VirtualThreads.newVirtualThreadPerTaskExecutor("http-vt-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService requestHandlingExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(requestHandlingExecutor);
+    }
+
+    @Bean(destroyMethod = "close")
+    public VirtualThreadMetrics virtualThreadMetrics(
+            @Value("${budget.virtual-threads.pinned-threshold:20ms}") Duration pinnedThreshold) {
+        return new VirtualThreadMetrics(pinnedThreshold);
+    }
+}
@@ -0,0 +1,106 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * VirtualThreadMetrics reports pinning and carrier threads of the virtual-thread scheduler.
+ * Pinning is read from the JFR events emitted by the JDK, carrier threads from the "CarrierThreads" thread group.
+ * One JFR recording stream serves every registry the binder is bound to; it is started on the first bind
+ * and closed when the bean is destroyed.
+ **/
+
+@Slf4j
+public class VirtualThreadMetrics implements MeterBinder, AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String SUBMIT_FAILED_EVENT = "jdk.VirtualThreadSubmitFailed";
+    private static final String CARRIER_THREAD_GROUP = "CarrierThreads";
+
+    private final Duration pinnedThreshold;
+    private final RecordingStream recordingStream = new RecordingStream();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final List<Timer> pinnedTimers = new CopyOnWriteArrayList<>();
+    private final List<Counter> submitFailedCounters = new CopyOnWriteArrayList<>();
+
+    public VirtualThreadMetrics(Duration pinnedThreshold) {
+        this.pinnedThreshold = pinnedThreshold;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        pinnedTimers.add(Timer.builder("budget.virtual-threads.pinned")
+                .description("Time virtual threads stayed pinned to their carrier thread")
+                .register(registry));
+        submitFailedCounters.add(Counter.builder("budget.virtual-threads.submit.failed")
+                .description("Virtual threads that could not be scheduled on a carrier thread")
+                .register(registry));
+        Gauge.builder("budget.virtual-threads.carrier.threads", VirtualThreadMetrics::countCarrierThreads)
+                .description("Live carrier threads of the virtual-thread scheduler")
+                .register(registry);
+        Gauge.builder("budget.virtual-threads.carrier.parallelism", VirtualThreadMetrics::schedulerParallelism)
+                .description("Configured parallelism of the virtual-thread scheduler")
+                .register(registry);
+
+        if (closed.get() || !started.compareAndSet(false, true)) {
+            return;
+        }
+        recordingStream.enable(PINNED_EVENT).withThreshold(pinnedThreshold).withStackTrace();
+        recordingStream.enable(SUBMIT_FAILED_EVENT);
+        recordingStream.onEvent(PINNED_EVENT, event -> {
+            pinnedTimers.forEach(pinned -> pinned.record(event.getDuration()));
+            if (log.isDebugEnabled()) {
+                log.debug("Virtual thread pinned for {} at {}", event.getDuration(), topFrame(event.getStackTrace()));
+            }
+        });
+        recordingStream.onEvent(SUBMIT_FAILED_EVENT, event -> submitFailedCounters.forEach(Counter::increment));
+        recordingStream.startAsync();
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            recordingStream.close();
+        }
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown frame";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static double countCarrierThreads() {
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        ThreadGroup[] groups = new ThreadGroup[root.activeGroupCount() + 1];
+        int groupCount = root.enumerate(groups, true);
+        for (int i = 0; i < groupCount; i++) {
+            if (CARRIER_THREAD_GROUP.equals(groups[i].getName())) {
+                return groups[i].activeCount();
+            }
+        }
+        return 0;
+    }
+
+    private static double schedulerParallelism() {
+        return Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,54 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * VirtualThreads creates virtual-thread executors without requiring a Java 21 compiler.
+ * The build targets Java 17, so the Java 21 API is reached reflectively and is only usable on a Java 21+ runtime.
+ * Neither the CI image (.circleci, openjdk 17) nor the Docker base image ship Java 21, so on them these
+ * methods fail with IllegalStateException.
+ **/
+
+public final class VirtualThreads {
+
+    private static final int FIRST_VERSION_WITH_VIRTUAL_THREADS = 21;
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= FIRST_VERSION_WITH_VIRTUAL_THREADS;
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        return Executors.unconfigurableExecutorService(newThreadPerTaskExecutor(newThreadFactory(namePrefix)));
+    }
+
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    private static ExecutorService newThreadPerTaskExecutor(ThreadFactory threadFactory) {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    private static IllegalStateException unsupported(ReflectiveOperationException cause) {
+        return new IllegalStateException("Virtual threads require Java " + FIRST_VERSION_WITH_VIRTUAL_THREADS
+                + " or newer, current runtime: " + Runtime.version(), cause);
+    }
+}
@@ -52,13 +52,15 @@ public class WebSecurityConfig {
                                 "/logout",
                                 "/register",
                                 "/budget/family/*/addMember/*",
-                                "/resources/*")
+                                "/resources/*",
+                                DownstreamAwareAuthenticationFailureHandler.SERVICE_UNAVAILABLE_PATH)
                         .permitAll()
                         .anyRequest().authenticated())
                 .formLogin()
                     .loginPage(gatewayUrl + "/login")
                     .loginProcessingUrl("/authenticate")
                     .successForwardUrl("/")
+                    .failureHandler(new DownstreamAwareAuthenticationFailureHandler(gatewayUrl + "/login?error"))
                     .permitAll()
                     .usernameParameter("email")
                     .passwordParameter("password")
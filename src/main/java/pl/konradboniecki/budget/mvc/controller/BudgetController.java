@@ -1,23 +1,33 @@
 package pl.konradboniecki.budget.mvc.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
-import pl.konradboniecki.budget.mvc.model.Account;
+import pl.konradboniecki.budget.mvc.model.AccountPrincipal;
+import pl.konradboniecki.budget.mvc.model.ChunkedItems;
 import pl.konradboniecki.budget.mvc.model.Expense;
 import pl.konradboniecki.budget.mvc.model.Family;
 import pl.konradboniecki.budget.mvc.model.Jar;
+import pl.konradboniecki.budget.mvc.model.ResultPage;
 import pl.konradboniecki.budget.mvc.service.SecurityHelper;
+import pl.konradboniecki.budget.mvc.service.ViewModelAssembler;
 import pl.konradboniecki.budget.mvc.service.ViewTemplate;
 import pl.konradboniecki.budget.mvc.service.client.FamilyManagementClient;
 import pl.konradboniecki.budget.mvc.service.client.budgetmanagement.BudgetMgtServiceFacade;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Controller
@@ -26,40 +36,85 @@ public class BudgetController {
 
     private BudgetMgtServiceFacade budgetMgtServiceFacade;
     private FamilyManagementClient familyManagementClient;
+    private ViewModelAssembler viewModelAssembler;
     private SecurityHelper securityHelper;
     @Value("${budget.baseUrl.gateway}")
     private String gatewayUrl;
+    @Value("${budget.expenses.page-size:50}")
+    private int defaultPageSize;
+    @Value("${budget.expenses.max-page-size:200}")
+    private int maxPageSize;
+    @Value("${budget.expenses.streaming.chunk-size:200}")
+    private int streamingChunkSize;
 
     @Autowired
     public BudgetController(BudgetMgtServiceFacade budgetMgtServiceFacade,
                             FamilyManagementClient familyManagementClient,
+                            ViewModelAssembler viewModelAssembler,
                             SecurityHelper securityHelper) {
         this.budgetMgtServiceFacade = budgetMgtServiceFacade;
         this.familyManagementClient = familyManagementClient;
+        this.viewModelAssembler = viewModelAssembler;
         this.securityHelper = securityHelper;
     }
 
     @GetMapping
-    public ModelAndView showBudget(ModelMap modelMap) {
-        Account acc = securityHelper.getLoggedAccountByEmail(securityHelper.getEmailOfLoggedUser());
+    public ModelAndView showBudget(@AuthenticationPrincipal AccountPrincipal principal,
+                                   @RequestParam(value = "page", defaultValue = "0") int page,
+                                   @RequestParam(value = "size", required = false) Integer size,
+                                   @RequestParam(value = "all", defaultValue = "false") boolean all,
+                                   HttpServletResponse response,
+                                   ModelMap modelMap) {
+        AccountPrincipal acc = securityHelper.withCurrentFamily(principal);
         if (acc.getFamilyId() == null) {
             log.info("Family not found for email {}, redirecting to form ", acc.getEmail());
             return new ModelAndView("redirect:" + gatewayUrl + "/budget/family");
-        } else {
-            // TODO: Possible family absence
-            Family family = familyManagementClient.findFamilyById(acc.getFamilyId()).orElseThrow();
-            log.info("showing budget for family: {}", family);
-            List<Jar> jarList = budgetMgtServiceFacade.getAllJarsFromBudgetWithId(family.getBudgetId());
-            List<Expense> expenseList = budgetMgtServiceFacade.getAllExpensesFromBudgetWithId(family.getBudgetId());
-
-            if (!jarList.isEmpty()) {
-                modelMap.addAttribute("jarList", jarList);
+        }
+        Optional<Family> familyOpt = familyManagementClient.findFamilyById(acc.getFamilyId());
+        if (familyOpt.isEmpty()) {
+            // the family was removed, possibly by another member, after this principal was created
+            log.info("Family {} of account {} no longer exists, redirecting to form", acc.getFamilyId(), acc.getId());
+            securityHelper.refreshLoggedAccountFamily(acc.getId(), null);
+            return new ModelAndView("redirect:" + gatewayUrl + "/budget/family");
+        }
+        Family family = familyOpt.get();
+        log.info("showing budget for family: {}", family);
+        ViewModelAssembler.Assembly assembly = viewModelAssembler.start();
+        CompletableFuture<List<Jar>> jars = assembly.fork(() ->
+                budgetMgtServiceFacade.getAllJarsFromBudgetWithId(family.getBudgetId()));
+        if (all) {
+            // the whole history is rendered while it is fetched, one flushed chunk at a time
+            CompletableFuture<ChunkedItems<Expense>> expenses = assembly.fork(() ->
+                    budgetMgtServiceFacade.streamExpenses(family.getBudgetId(), streamingChunkSize,
+                            () -> flush(response)));
+            ChunkedItems<Expense> expenseItems = assembly.join(expenses);
+            if (!expenseItems.isEmpty()) {
+                modelMap.addAttribute("expenseList", expenseItems);
+                modelMap.addAttribute("expenseStream", expenseItems);
             }
-            if (!expenseList.isEmpty()) {
-                modelMap.addAttribute("expenseList", expenseList);
+        } else {
+            int pageSize = size == null ? defaultPageSize : Math.min(Math.max(size, 1), maxPageSize);
+            CompletableFuture<ResultPage<Expense>> expenses = assembly.fork(() ->
+                    budgetMgtServiceFacade.getExpensePage(family.getBudgetId(), Math.max(page, 0), pageSize));
+            ResultPage<Expense> expensePage = assembly.join(expenses);
+            if (!expensePage.getItems().isEmpty()) {
+                modelMap.addAttribute("expenseList", expensePage.getItems());
             }
-            modelMap.addAttribute("budgetId", family.getBudgetId());
-            return new ModelAndView(ViewTemplate.BUDGET, modelMap);
+            modelMap.addAttribute("expensePage", expensePage);
+        }
+        List<Jar> jarList = assembly.join(jars);
+        if (!jarList.isEmpty()) {
+            modelMap.addAttribute("jarList", jarList);
+        }
+        modelMap.addAttribute("budgetId", family.getBudgetId());
+        return new ModelAndView(ViewTemplate.BUDGET, modelMap);
+    }
+
+    private static void flush(HttpServletResponse response) {
+        try {
+            response.flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Client stopped reading the budget page.", e);
         }
     }
 }
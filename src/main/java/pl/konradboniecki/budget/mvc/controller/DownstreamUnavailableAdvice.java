@@ -0,0 +1,28 @@
+package pl.konradboniecki.budget.mvc.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.servlet.ModelAndView;
+import pl.konradboniecki.budget.mvc.service.ViewTemplate;
+import pl.konradboniecki.budget.mvc.service.client.DownstreamUnavailableException;
+
+import static pl.konradboniecki.budget.mvc.service.ErrorType.SERVICE_UNAVAILABLE;
+
+/**
+ * Renders the degraded error view when a downstream service is cut off by its circuit breaker or bulkhead.
+ **/
+
+@Slf4j
+@ControllerAdvice
+public class DownstreamUnavailableAdvice {
+
+    @ExceptionHandler(DownstreamUnavailableException.class)
+    public ModelAndView handleDownstreamUnavailable(DownstreamUnavailableException e) {
+        log.warn("Failing fast: {}", e.getMessage());
+        ModelAndView modelAndView = new ModelAndView(ViewTemplate.ERROR_PAGE, "errorType", SERVICE_UNAVAILABLE);
+        modelAndView.setStatus(HttpStatus.SERVICE_UNAVAILABLE);
+        return modelAndView;
+    }
+}
@@ -4,7 +4,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
 import org.springframework.validation.BindingResult;
@@ -12,10 +12,13 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.ModelAndView;
 import pl.konradboniecki.budget.mvc.model.Account;
+import pl.konradboniecki.budget.mvc.model.AccountPrincipal;
 import pl.konradboniecki.budget.mvc.model.Budget;
 import pl.konradboniecki.budget.mvc.model.Family;
 import pl.konradboniecki.budget.mvc.model.Invitation;
 import pl.konradboniecki.budget.mvc.model.frontendforms.FamilyCreationForm;
+import pl.konradboniecki.budget.mvc.service.SecurityHelper;
+import pl.konradboniecki.budget.mvc.service.ViewModelAssembler;
 import pl.konradboniecki.budget.mvc.service.ViewTemplate;
 import pl.konradboniecki.budget.mvc.service.client.FamilyManagementClient;
 import pl.konradboniecki.budget.mvc.service.client.accountmanagement.AccountManagementClient;
@@ -23,11 +26,10 @@ import pl.konradboniecki.budget.mvc.service.client.budgetmanagement.BudgetMgtSer
 
 import javax.validation.Valid;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
-
-import static pl.konradboniecki.budget.mvc.service.ErrorType.PROCESSING_EXCEPTION;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Controller
@@ -37,74 +39,90 @@ public class FamilyController {
     private BudgetMgtServiceFacade budgetMgtServiceFacade;
     private AccountManagementClient accMgtClient;
     private FamilyManagementClient familyManagementClient;
+    private ViewModelAssembler viewModelAssembler;
+    private SecurityHelper securityHelper;
     @Value("${budget.baseUrl.gateway}")
     private String gatewayUrl;
 
     @Autowired
     public FamilyController(BudgetMgtServiceFacade budgetMgtServiceFacade,
                             AccountManagementClient accMgtClient,
-                            FamilyManagementClient familyManagementClient) {
+                            FamilyManagementClient familyManagementClient,
+                            ViewModelAssembler viewModelAssembler,
+                            SecurityHelper securityHelper) {
         this.budgetMgtServiceFacade = budgetMgtServiceFacade;
         this.accMgtClient = accMgtClient;
         this.familyManagementClient = familyManagementClient;
+        this.viewModelAssembler = viewModelAssembler;
+        this.securityHelper = securityHelper;
     }
 
     @GetMapping
-    public ModelAndView showFamily(ModelMap modelMap) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<Account> acc = accMgtClient.findAccountByEmail(email);
-        if (!acc.isPresent()) {
-            return new ModelAndView(ViewTemplate.ERROR_PAGE, "errorType", PROCESSING_EXCEPTION);
-        }
+    public ModelAndView showFamily(@AuthenticationPrincipal AccountPrincipal principal, ModelMap modelMap) {
+        AccountPrincipal acc = securityHelper.withCurrentFamily(principal);
+        String email = acc.getEmail();
 
         HashMap<String, Object> modelAttributes = new HashMap<>();
-        if (acc.get().hasFamily()){
+        if (acc.hasFamily()){
             // when user has family then get his family, get all invitations to this family
-            Family family = familyManagementClient.findFamilyById(acc.get().getFamilyId()).get();
+            String familyId = acc.getFamilyId();
+            ViewModelAssembler.Assembly assembly = viewModelAssembler.start();
+            CompletableFuture<Optional<Family>> familyPart = assembly.fork(() ->
+                    familyManagementClient.findFamilyById(familyId));
+            CompletableFuture<List<Invitation>> invitationsPart = assembly.fork(() ->
+                    familyManagementClient.findAllInvitationsByFamilyId(familyId));
+            Optional<Family> familyOpt = assembly.join(familyPart);
+            List<Invitation> invitations = assembly.join(invitationsPart);
+            if (familyOpt.isEmpty()) {
+                // the family was removed, possibly by another member, after this principal was created
+                log.info("Family {} of account {} no longer exists, redirecting to form", familyId, acc.getId());
+                securityHelper.refreshLoggedAccountFamily(acc.getId(), null);
+                return new ModelAndView("redirect:" + gatewayUrl + "/budget/family");
+            }
+            Family family = familyOpt.get();
             modelAttributes.put("familyObject", family);
-            List<Invitation> invitations = familyManagementClient.findAllInvitationsByFamilyId(acc.get().getFamilyId());
             modelMap.putIfAbsent("invitationsList", invitations);
             modelMap.addAttribute("familyObject", family);
             return new ModelAndView(ViewTemplate.FAMILY_HOME_PAGE, modelMap);
         } else {
             modelAttributes.put("newFamilyCreationForm", new FamilyCreationForm());
             List<Invitation> invitations = familyManagementClient.findAllInvitationsByEmail(email);
-            List<String> familyIds = new LinkedList<>();
-            for (Invitation invitation : invitations){
-                familyIds.add(invitation.getFamilyId());
-            }
-            invitations.clear();
 
-            if (!familyIds.isEmpty()){
-                Optional<Family> family;
-                List<Account> familyOwners = new LinkedList<>();
-                for (String familyId : familyIds) {
-                    family = familyManagementClient.findFamilyById(familyId);
-                    Optional<Account> account = accMgtClient.findAccountById(family.get().getOwnerId());
-                    familyOwners.add(account.get());
-                }
+            if (!invitations.isEmpty()){
+                // owners of inviting families do not depend on each other
+                ViewModelAssembler.Assembly assembly = viewModelAssembler.start();
+                List<CompletableFuture<Account>> ownerParts = invitations.stream()
+                        .map(invitation -> assembly.fork(() -> findFamilyOwner(invitation.getFamilyId())))
+                        .collect(Collectors.toList());
+                List<Account> familyOwners = ownerParts.stream()
+                        .map(assembly::join)
+                        .collect(Collectors.toList());
                 modelAttributes.put("familyOwnersList", familyOwners);
             }
             return new ModelAndView(ViewTemplate.FAMILY_CREATION_PAGE, modelAttributes);
         }
     }
 
+    private Account findFamilyOwner(String familyId) {
+        Optional<Family> family = familyManagementClient.findFamilyById(familyId);
+        return accMgtClient.findAccountById(family.get().getOwnerId()).get();
+    }
+
     @PostMapping("/create")
     public ModelAndView createFamilyFromForm(@ModelAttribute("newFamilyCreationForm")
                                              @Valid FamilyCreationForm familyCreationForm,
-                                             BindingResult bindingResult){
+                                             BindingResult bindingResult,
+                                             @AuthenticationPrincipal AccountPrincipal acc){
         if (bindingResult.hasErrors()) {
             log.error("Error during validation of family form: {}", familyCreationForm);
             return new ModelAndView(ViewTemplate.FAMILY_CREATION_PAGE);
         }
 
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<Account> acc = accMgtClient.findAccountByEmail(email);
-
-        Family family = new Family(familyCreationForm, acc.get().getId());
+        Family family = new Family(familyCreationForm, acc.getId());
         family = familyManagementClient.saveFamily(family);
 
-        accMgtClient.setFamilyIdInAccountWithId(family.getId(), acc.get().getId());
+        accMgtClient.setFamilyIdInAccountWithId(family.getId(), acc.getId());
+        securityHelper.refreshLoggedAccountFamily(acc.getId(), family.getId());
 
         Budget budget = budgetMgtServiceFacade.saveBudget(new Budget().setFamilyId(family.getId()));
         family.setBudgetId(budget.getId());
@@ -114,9 +132,13 @@ public class FamilyController {
     }
 
     @PostMapping("/remove-family")
-    public ModelAndView removeFamily(@RequestParam("familyId") String id) {
+    public ModelAndView removeFamily(@RequestParam("familyId") String id,
+                                     @AuthenticationPrincipal AccountPrincipal acc) {
         if (familyManagementClient.findFamilyById(id).isPresent()) {
             familyManagementClient.deleteFamilyById(id);
+            if (id.equals(acc.getFamilyId())) {
+                securityHelper.refreshLoggedAccountFamily(acc.getId(), null);
+            }
             return new ModelAndView("redirect:" + gatewayUrl + "/budget/family");
         } else {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "family with id:" + id + " not found.");
@@ -4,12 +4,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.ModelAndView;
 import pl.konradboniecki.budget.mvc.model.Account;
+import pl.konradboniecki.budget.mvc.model.AccountPrincipal;
 import pl.konradboniecki.budget.mvc.model.Family;
 import pl.konradboniecki.budget.mvc.model.Invitation;
 import pl.konradboniecki.budget.mvc.model.dto.InvitationToFamily;
@@ -155,6 +157,7 @@ public class InvitationController {
                         return new ModelAndView(ViewTemplate.ERROR_PAGE, "errorType", INVALID_INVITATION_LINK);
                     } else {
                         accMgtClient.setFamilyIdInAccountWithId(familyId, accountId);
+                        securityHelper.refreshLoggedAccountFamily(accountId, familyId);
                         familyManagementClient.deleteInvitationById(invitation.get().getId());
                     }
                 }
@@ -169,10 +172,10 @@ public class InvitationController {
 
     @PostMapping("/accept-invitation-in-family-creation-form")
     public ModelAndView acceptInvitationInFamilyCreationForm(
-            @RequestParam(value = "familyOwnerId") String ownerId) {
+            @RequestParam(value = "familyOwnerId") String ownerId,
+            @AuthenticationPrincipal AccountPrincipal invitee) {
 
-        String inviteeEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<Account> invitee = accMgtClient.findAccountByEmail(inviteeEmail);
+        String inviteeEmail = invitee.getEmail();
         Optional<Account> ownerOpt = accMgtClient.findAccountById(ownerId);
         String familyId = ownerOpt.get().getFamilyId();
 
@@ -181,7 +184,8 @@ public class InvitationController {
             familyManagementClient.deleteInvitationById(invitationToDelete.get().getId());
         }
 
-        accMgtClient.setFamilyIdInAccountWithId(ownerOpt.get().getFamilyId(), invitee.get().getId());
+        accMgtClient.setFamilyIdInAccountWithId(familyId, invitee.getId());
+        securityHelper.refreshLoggedAccountFamily(invitee.getId(), familyId);
         return new ModelAndView("redirect:" + gatewayUrl + "/budget/family");
     }
 
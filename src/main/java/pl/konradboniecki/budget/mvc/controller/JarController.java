@@ -3,23 +3,27 @@ package pl.konradboniecki.budget.mvc.controller;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
-import pl.konradboniecki.budget.mvc.model.Account;
+import pl.konradboniecki.budget.mvc.model.AccountPrincipal;
 import pl.konradboniecki.budget.mvc.model.Budget;
+import pl.konradboniecki.budget.mvc.model.Expense;
 import pl.konradboniecki.budget.mvc.model.Jar;
+import pl.konradboniecki.budget.mvc.model.ResultPage;
 import pl.konradboniecki.budget.mvc.model.frontendforms.JarCreationForm;
+import pl.konradboniecki.budget.mvc.service.ViewModelAssembler;
 import pl.konradboniecki.budget.mvc.service.ViewTemplate;
-import pl.konradboniecki.budget.mvc.service.client.accountmanagement.AccountManagementClient;
 import pl.konradboniecki.budget.mvc.service.client.budgetmanagement.BudgetMgtServiceFacade;
 
 import javax.validation.Valid;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Controller
@@ -27,14 +31,16 @@ import java.util.Optional;
 public class JarController {
 
     private BudgetMgtServiceFacade budgetMgtServiceFacade;
-    private AccountManagementClient accMgtClient;
+    private ViewModelAssembler viewModelAssembler;
     @Value("${budget.baseUrl.gateway}")
     private String gatewayUrl;
+    @Value("${budget.expenses.page-size:50}")
+    private int defaultPageSize;
 
     @Autowired
-    public JarController(BudgetMgtServiceFacade budgetMgtServiceFacade, AccountManagementClient accMgtClient) {
+    public JarController(BudgetMgtServiceFacade budgetMgtServiceFacade, ViewModelAssembler viewModelAssembler) {
         this.budgetMgtServiceFacade = budgetMgtServiceFacade;
-        this.accMgtClient = accMgtClient;
+        this.viewModelAssembler = viewModelAssembler;
     }
 
     @GetMapping("/create-jar")
@@ -45,38 +51,42 @@ public class JarController {
 
     @PostMapping("/create-jar")
     public ModelAndView createJar(
-            @ModelAttribute("newJarCreationForm") @Valid JarCreationForm jarCreationForm, BindingResult bindingResult, ModelMap modelMap) {
+            @ModelAttribute("newJarCreationForm") @Valid JarCreationForm jarCreationForm, BindingResult bindingResult,
+            @AuthenticationPrincipal AccountPrincipal acc, ModelMap modelMap) {
         if (bindingResult.hasErrors()) {
             return new ModelAndView(ViewTemplate.JAR_CREATION_PAGE);
         }
 
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<Account> accOpt = accMgtClient.findAccountByEmail(email);
-        if (!accOpt.isPresent()) {
-            throw new RuntimeException("Account doesn't exist");
-        }
-        Account acc = accOpt.get();
-
         Optional<Budget> budgetOpt = budgetMgtServiceFacade.findBudgetByFamilyId(acc.getFamilyId());
-        if (!accOpt.isPresent()) {
+        if (!budgetOpt.isPresent()) {
             throw new RuntimeException("Budget doesn't exist");
         }
         Budget budget = budgetOpt.get();
 
+        // expenses are rendered on the same page and do not depend on the jar flow
+        ViewModelAssembler.Assembly assembly = viewModelAssembler.start();
+        CompletableFuture<ResultPage<Expense>> expenses = assembly.fork(() ->
+                budgetMgtServiceFacade.getExpensePage(budget.getId(), 0, defaultPageSize));
+
         List<Jar> jarList = budgetMgtServiceFacade.getAllJarsFromBudgetWithId(budget.getId());
         //TODO: replace with redirect? this way refresh of page in browser will not create
         if (jarList.size() < budget.getMaxJars()) {
             Jar jar = new Jar(jarCreationForm);
             jar.setBudgetId(budget.getId());
-            budgetMgtServiceFacade.saveJar(jar, budget.getId());
-            jarList = budgetMgtServiceFacade.getAllJarsFromBudgetWithId(budget.getId());
-            modelMap.addAttribute("jarList", jarList);
-            return new ModelAndView(ViewTemplate.BUDGET, modelMap);
+            Jar savedJar = budgetMgtServiceFacade.saveJar(jar, budget.getId());
+            jarList = new ArrayList<>(jarList);
+            jarList.add(savedJar);
         } else {
             modelMap.put("maxJarsAmountExceeded", true);
-            modelMap.put("jarList", jarList);
-            return new ModelAndView(ViewTemplate.BUDGET, modelMap);
         }
+        modelMap.put("jarList", jarList);
+        ResultPage<Expense> expensePage = assembly.join(expenses);
+        if (!expensePage.getItems().isEmpty()) {
+            modelMap.addAttribute("expenseList", expensePage.getItems());
+        }
+        modelMap.addAttribute("expensePage", expensePage);
+        modelMap.addAttribute("budgetId", budget.getId());
+        return new ModelAndView(ViewTemplate.BUDGET, modelMap);
     }
 
     @PostMapping("/remove-jar")
@@ -94,7 +104,7 @@ public class JarController {
             @RequestParam("budgetId") String budgetId,
             ModelMap modelMap){
 
-        Optional<Jar> jarOpt = budgetMgtServiceFacade.findJarByIdInBudget(budgetId, jarId);
+        Optional<Jar> jarOpt = budgetMgtServiceFacade.findCurrentJarByIdInBudget(budgetId, jarId);
         if (jarOpt.isPresent()){
             Jar jar = jarOpt.get();
             jar.setCurrentAmount(jar.getCurrentAmount() + amount);
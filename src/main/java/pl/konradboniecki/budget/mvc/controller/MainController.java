@@ -1,13 +1,18 @@
 package pl.konradboniecki.budget.mvc.controller;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.servlet.ModelAndView;
+import pl.konradboniecki.budget.mvc.configuration.DownstreamAwareAuthenticationFailureHandler;
 import pl.konradboniecki.budget.mvc.model.frontendforms.LoginForm;
 import pl.konradboniecki.budget.mvc.service.ViewTemplate;
 
+import static pl.konradboniecki.budget.mvc.service.ErrorType.SERVICE_UNAVAILABLE;
+
 @Controller
 public class MainController {
     @Value("${budget.baseUrl.gateway}")
@@ -32,4 +37,11 @@ public class MainController {
     public ModelAndView customError(){
         return new ModelAndView(ViewTemplate.ERROR_PAGE);
     }
+
+    @RequestMapping(value = DownstreamAwareAuthenticationFailureHandler.SERVICE_UNAVAILABLE_PATH)
+    public ModelAndView serviceUnavailable(){
+        ModelAndView modelAndView = new ModelAndView(ViewTemplate.ERROR_PAGE, "errorType", SERVICE_UNAVAILABLE);
+        modelAndView.setStatus(HttpStatus.SERVICE_UNAVAILABLE);
+        return modelAndView;
+    }
 }
@@ -0,0 +1,37 @@
+package pl.konradboniecki.budget.mvc.model;
+
+import lombok.Value;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.io.Serializable;
+
+/**
+ * Immutable snapshot of the logged in Account kept in the security context,
+ * so pages do not have to look the account up again on every request.
+ **/
+
+@Value
+public class AccountPrincipal implements AuthenticatedPrincipal, Serializable {
+
+    String id;
+    String email;
+    String familyId;
+    boolean enabled;
+
+    public static AccountPrincipal from(Account account) {
+        return new AccountPrincipal(account.getId(), account.getEmail(), account.getFamilyId(), account.isEnabled());
+    }
+
+    public AccountPrincipal withFamilyId(String familyId) {
+        return new AccountPrincipal(id, email, familyId, enabled);
+    }
+
+    public boolean hasFamily() {
+        return familyId != null;
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,76 @@
+package pl.konradboniecki.budget.mvc.model;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+/**
+ * ChunkedItems is a lazily fetched list. Only the first page is held; following pages are fetched
+ * while the list is iterated and {@code afterChunk} runs before each fetch, so a template can flush
+ * what it already rendered. Iterating again starts over from the first page.
+ * A failed page fetch ends the iteration and marks the items as incomplete, since the response may already
+ * be committed by then; a template checks {@link #isIncomplete()} after the loop to tell the reader.
+ **/
+
+public class ChunkedItems<T> implements Iterable<T> {
+
+    private final ResultPage<T> firstPage;
+    private final IntFunction<ResultPage<T>> pageFetch;
+    private final Runnable afterChunk;
+    private volatile RuntimeException failure;
+
+    public ChunkedItems(ResultPage<T> firstPage, IntFunction<ResultPage<T>> pageFetch, Runnable afterChunk) {
+        this.firstPage = firstPage;
+        this.pageFetch = pageFetch;
+        this.afterChunk = afterChunk;
+    }
+
+    public boolean isEmpty() {
+        return firstPage.getItems().isEmpty();
+    }
+
+    public boolean isIncomplete() {
+        return failure != null;
+    }
+
+    public Optional<RuntimeException> getFailure() {
+        return Optional.ofNullable(failure);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private ResultPage<T> page = firstPage;
+            private int index;
+            private boolean failed;
+
+            @Override
+            public boolean hasNext() {
+                while (index >= page.getItems().size()) {
+                    if (failed || page.getItems().isEmpty() || !page.hasNext()) {
+                        return false;
+                    }
+                    try {
+                        afterChunk.run();
+                        page = pageFetch.apply(page.getPage() + 1);
+                    } catch (RuntimeException e) {
+                        failure = e;
+                        failed = true;
+                        return false;
+                    }
+                    index = 0;
+                }
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.getItems().get(index++);
+            }
+        };
+    }
+}
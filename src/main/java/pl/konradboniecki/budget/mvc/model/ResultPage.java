@@ -0,0 +1,38 @@
+package pl.konradboniecki.budget.mvc.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of a longer list. Totals are -1 when the downstream service did not report them.
+ **/
+
+@Value
+public class ResultPage<T> {
+
+    List<T> items;
+    int page;
+    int pageSize;
+    long totalElements;
+    int totalPages;
+
+    public boolean hasPrevious() {
+        return page > 0;
+    }
+
+    public boolean hasNext() {
+        if (totalPages >= 0) {
+            return page + 1 < totalPages;
+        }
+        return items.size() >= pageSize;
+    }
+
+    public int getFirstItemNumber() {
+        return page * pageSize + 1;
+    }
+
+    public ResultPage<T> withItems(List<T> newItems) {
+        return new ResultPage<>(newItems, page, pageSize, totalElements, totalPages);
+    }
+}
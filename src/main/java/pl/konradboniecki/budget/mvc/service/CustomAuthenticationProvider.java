@@ -4,12 +4,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import pl.konradboniecki.budget.mvc.model.Account;
+import pl.konradboniecki.budget.mvc.model.AccountPrincipal;
+import pl.konradboniecki.budget.mvc.service.client.DownstreamUnavailableException;
 import pl.konradboniecki.budget.mvc.service.client.accountmanagement.AccountManagementClient;
+import pl.konradboniecki.budget.mvc.service.client.accountmanagement.VerifiedCredentialCache;
 import pl.konradboniecki.chassis.tools.HashGenerator;
 
 import java.util.Optional;
@@ -25,6 +29,8 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
     private AccountManagementClient accountManagementClient;
     @Autowired
     private HashGenerator hashGenerator;
+    @Autowired
+    private VerifiedCredentialCache verifiedCredentialCache;
 
     @Override
     public Authentication authenticate(Authentication authentication) {
@@ -33,25 +39,44 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
         String hashedTypedPassword = hashGenerator.hashPassword(password);
         log.info("Attempting to authenticate: {}", email);
 
-        if(authenticationIsCorrect(email, hashedTypedPassword)){
+        Optional<AccountPrincipal> principal;
+        try {
+            principal = authenticateAccount(email, hashedTypedPassword);
+        } catch (DownstreamUnavailableException e) {
+            throw new InternalAuthenticationServiceException(e.getMessage(), e);
+        }
+        if(principal.isPresent()){
             log.info("Authenticated: {}", email);
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            return new UsernamePasswordAuthenticationToken(email, hashedTypedPassword, authentication.getAuthorities());
+            return new UsernamePasswordAuthenticationToken(principal.get(), hashedTypedPassword, authentication.getAuthorities());
         } else {
             log.info("Failed to authenticate: {}", email);
             return null;
         }
     }
 
-    private boolean authenticationIsCorrect(String email, String passwordHash) {
-        Optional<Account> account = accountManagementClient.findAccountByEmail(email);
-        if (account.isPresent() && account.get().isEnabled()) {
-            return accountManagementClient.checkIfPasswordIsCorrect(account.get().getId(), passwordHash);
+    private Optional<AccountPrincipal> authenticateAccount(String email, String passwordHash) {
+        Optional<AccountPrincipal> verified = verifiedCredentialCache.findVerified(email, passwordHash);
+        if (verified.isPresent()) {
+            return verified;
+        }
+        Optional<Account> account = findAccount(email);
+        if (account.isPresent() && account.get().isEnabled()
+                && accountManagementClient.checkIfPasswordIsCorrect(account.get().getId(), passwordHash)) {
+            AccountPrincipal principal = AccountPrincipal.from(account.get());
+            verifiedCredentialCache.verified(email, passwordHash, principal);
+            return Optional.of(principal);
         } else {
-            return false;
+            return Optional.empty();
         }
     }
 
+    private Optional<Account> findAccount(String email) {
+        return verifiedCredentialCache.findAccountId(email)
+                .flatMap(accountManagementClient::findAccountById)
+                .or(() -> accountManagementClient.findAccountByEmail(email));
+    }
+
     @Override
     public boolean supports(Class<?> authentication) {
         return authentication.equals(UsernamePasswordAuthenticationToken.class);
@@ -13,7 +13,8 @@ public enum ErrorType {
     INVALID_INVITATION_LINK("invalidInvitationLink"),
     PROCESSING_EXCEPTION("processingException"),
     NOT_ENOUGH_SPACE_IN_FAMILY("notEnoughSpaceInFamily"),
-    ALREADY_IN_FAMILY("alreadyInFamily");
+    ALREADY_IN_FAMILY("alreadyInFamily"),
+    SERVICE_UNAVAILABLE("serviceUnavailable");
 
     @Getter
     private String errorTypeVarName;
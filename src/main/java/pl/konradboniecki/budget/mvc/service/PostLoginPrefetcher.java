@@ -0,0 +1,84 @@
+package pl.konradboniecki.budget.mvc.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.event.InteractiveAuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+import pl.konradboniecki.budget.mvc.model.AccountPrincipal;
+import pl.konradboniecki.budget.mvc.service.client.FamilyManagementClient;
+import pl.konradboniecki.budget.mvc.service.client.PrefetchTracker;
+import pl.konradboniecki.budget.mvc.service.client.budgetmanagement.BudgetMgtServiceFacade;
+
+/**
+ * PostLoginPrefetcher warms the caches read by the budget page right after a form login:
+ * the family, and through its budget id the jar list and the first page of expenses.
+ * HTTP Basic authenticates every request, so it does not count as a login here.
+ * It runs on the bounded prefetch executor and gives up when the executor is full.
+ **/
+
+@Slf4j
+@Component
+public class PostLoginPrefetcher {
+
+    private static final String RUNS_METRIC = "budget.prefetch.runs";
+
+    private final FamilyManagementClient familyManagementClient;
+    private final BudgetMgtServiceFacade budgetMgtServiceFacade;
+    private final PrefetchTracker prefetchTracker;
+    private final ThreadPoolTaskExecutor prefetchExecutor;
+    private final MeterRegistry meterRegistry;
+    @Value("${budget.prefetch.enabled:true}")
+    private boolean enabled;
+    @Value("${budget.expenses.page-size:50}")
+    private int expensePageSize;
+
+    @Autowired
+    public PostLoginPrefetcher(FamilyManagementClient familyManagementClient,
+                               BudgetMgtServiceFacade budgetMgtServiceFacade,
+                               PrefetchTracker prefetchTracker,
+                               @Qualifier("prefetchExecutor") ThreadPoolTaskExecutor prefetchExecutor,
+                               MeterRegistry meterRegistry) {
+        this.familyManagementClient = familyManagementClient;
+        this.budgetMgtServiceFacade = budgetMgtServiceFacade;
+        this.prefetchTracker = prefetchTracker;
+        this.prefetchExecutor = prefetchExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener
+    public void onInteractiveLogin(InteractiveAuthenticationSuccessEvent event) {
+        if (event.getAuthentication().getPrincipal() instanceof AccountPrincipal) {
+            prefetch((AccountPrincipal) event.getAuthentication().getPrincipal());
+        }
+    }
+
+    public void prefetch(AccountPrincipal principal) {
+        if (!enabled || !principal.hasFamily()) {
+            return;
+        }
+        try {
+            prefetchExecutor.execute(() -> prefetchFamily(principal.getFamilyId()));
+        } catch (TaskRejectedException e) {
+            meterRegistry.counter(RUNS_METRIC, "outcome", "rejected").increment();
+        }
+    }
+
+    private void prefetchFamily(String familyId) {
+        try {
+            prefetchTracker.record(() -> familyManagementClient.findFamilyById(familyId).ifPresent(family -> {
+                budgetMgtServiceFacade.getAllJarsFromBudgetWithId(family.getBudgetId());
+                budgetMgtServiceFacade.getExpensePage(family.getBudgetId(), 0, expensePageSize);
+            }));
+            meterRegistry.counter(RUNS_METRIC, "outcome", "success").increment();
+        } catch (RuntimeException e) {
+            log.debug("Prefetch for family with id: {} failed.", familyId, e);
+            meterRegistry.counter(RUNS_METRIC, "outcome", "failed").increment();
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package pl.konradboniecki.budget.mvc.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import pl.konradboniecki.budget.mvc.model.Account;
+import pl.konradboniecki.budget.mvc.model.AccountPrincipal;
 import pl.konradboniecki.budget.mvc.service.client.accountmanagement.AccountManagementClient;
 
+import java.util.Optional;
+
 //TODO: test this class
 @Service
 public class SecurityHelper {
 
     private AccountManagementClient accountManagementClient;
+    private SecurityContextRepository securityContextRepository = new HttpSessionSecurityContextRepository();
 
     @Autowired
     public SecurityHelper(AccountManagementClient accountManagementClient) {
@@ -25,4 +36,47 @@ public class SecurityHelper {
         return accountManagementClient.findAccountByEmail(email)
                 .orElseThrow(RuntimeException::new);
     }
+
+    /**
+     * Principals of other sessions are not refreshed when the family of their account changes,
+     * e.g. when an invitation is accepted elsewhere. A principal without a family is therefore checked
+     * against the cached account, which is evicted on every family change, and refreshed when it is stale.
+     **/
+    public AccountPrincipal withCurrentFamily(AccountPrincipal principal) {
+        if (principal.hasFamily()) {
+            return principal;
+        }
+        Optional<String> familyId = accountManagementClient.findAccountById(principal.getId())
+                .map(Account::getFamilyId);
+        if (familyId.isEmpty()) {
+            return principal;
+        }
+        refreshLoggedAccountFamily(principal.getId(), familyId.get());
+        return principal.withFamilyId(familyId.get());
+    }
+
+    /**
+     * Replaces the principal of the logged user after the family of that account changed. Other accounts are ignored.
+     **/
+    public void refreshLoggedAccountFamily(String accountId, String familyId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AccountPrincipal)) {
+            return;
+        }
+        AccountPrincipal principal = (AccountPrincipal) authentication.getPrincipal();
+        if (!principal.getId().equals(accountId)) {
+            return;
+        }
+        UsernamePasswordAuthenticationToken refreshedAuthentication = UsernamePasswordAuthenticationToken.authenticated(
+                principal.withFamilyId(familyId), authentication.getCredentials(), authentication.getAuthorities());
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(refreshedAuthentication);
+        SecurityContextHolder.setContext(securityContext);
+
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes) {
+            ServletRequestAttributes requestAttributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+            securityContextRepository.saveContext(securityContext,
+                    requestAttributes.getRequest(), requestAttributes.getResponse());
+        }
+    }
 }
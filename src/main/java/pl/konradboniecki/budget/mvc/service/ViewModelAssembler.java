@@ -0,0 +1,117 @@
+package pl.konradboniecki.budget.mvc.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import pl.konradboniecki.budget.mvc.service.client.RequestDeadline;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * ViewModelAssembler runs independent downstream fetches of one page in parallel.
+ * Every assembly ends at the request deadline, or after {@code budget.view-model.deadline} outside of a request
+ * with a deadline. Parts that are not ready in time fail the page with 504. Once any join fails, every part
+ * of the assembly that is still running is cancelled, which interrupts the worker threads running them.
+ **/
+
+@Slf4j
+@Service
+public class ViewModelAssembler {
+
+    private final Executor executor;
+    private final Duration deadline;
+
+    @Autowired
+    public ViewModelAssembler(@Qualifier("viewModelExecutor") Executor executor,
+                              @Value("${budget.view-model.deadline:10s}") Duration deadline) {
+        this.executor = executor;
+        this.deadline = deadline;
+    }
+
+    public Assembly start() {
+        Duration timeout = RequestDeadline.remaining().orElse(deadline);
+        return new Assembly(System.nanoTime() + timeout.toNanos());
+    }
+
+    public class Assembly {
+
+        private final long deadlineNanos;
+        private final List<CompletableFuture<?>> parts = new CopyOnWriteArrayList<>();
+
+        private Assembly(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public <T> CompletableFuture<T> fork(Supplier<T> fetch) {
+            Part<T> part = new Part<>();
+            FutureTask<Void> task = new FutureTask<>(() -> {
+                try {
+                    part.complete(fetch.get());
+                } catch (Throwable e) {
+                    part.completeExceptionally(e);
+                }
+            }, null);
+            part.task = task;
+            parts.add(part);
+            executor.execute(task);
+            return part;
+        }
+
+        public <T> T join(CompletableFuture<T> part) {
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            try {
+                return part.get(Math.max(remainingNanos, 0), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                cancelRemaining();
+                log.error("View model part not ready within the deadline.");
+                throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Page data not ready in time.", e);
+            } catch (ExecutionException e) {
+                cancelRemaining();
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("Failed to fetch page data.", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelRemaining();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while fetching page data.", e);
+            }
+        }
+
+        private void cancelRemaining() {
+            for (CompletableFuture<?> part : parts) {
+                if (!part.isDone()) {
+                    part.cancel(true);
+                }
+            }
+        }
+    }
+
+    private static class Part<T> extends CompletableFuture<T> {
+
+        private volatile Future<?> task;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            Future<?> runningTask = task;
+            if (runningTask != null) {
+                runningTask.cancel(mayInterruptIfRunning);
+            }
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
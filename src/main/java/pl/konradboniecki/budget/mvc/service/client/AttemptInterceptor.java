@@ -0,0 +1,33 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+
+import java.util.List;
+
+/**
+ * AttemptInterceptor marks interceptors that execute a request more than once, like retries and hedging.
+ * Executing again within one interceptor chain would skip the interceptors that already ran, so every
+ * attempt interceptor gets a chain of its own below the per-call interceptors (see {@link #layered}).
+ * Each execution then creates a fresh request that passes through all attempt interceptors below.
+ **/
+
+public interface AttemptInterceptor extends ClientHttpRequestInterceptor {
+
+    /**
+     * Wraps the request factory in one layer per attempt interceptor found in the ordered list,
+     * the first of them outermost. Other interceptors are left out and belong to the RestTemplate.
+     **/
+    static ClientHttpRequestFactory layered(ClientHttpRequestFactory requestFactory,
+                                            List<? extends ClientHttpRequestInterceptor> orderedInterceptors) {
+        ClientHttpRequestFactory layeredFactory = requestFactory;
+        for (int i = orderedInterceptors.size() - 1; i >= 0; i--) {
+            if (orderedInterceptors.get(i) instanceof AttemptInterceptor) {
+                layeredFactory = new InterceptingClientHttpRequestFactory(layeredFactory,
+                        List.of(orderedInterceptors.get(i)));
+            }
+        }
+        return layeredFactory;
+    }
+}
@@ -0,0 +1,87 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import pl.konradboniecki.budget.mvc.model.Family;
+import pl.konradboniecki.budget.mvc.model.Invitation;
+
+import java.util.List;
+import java.util.Optional;
+
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.block;
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.blockList;
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.blockOptional;
+
+/**
+ * Keeps the blocking FamilyManagementClient API for callers while the calls go through the reactive client.
+ **/
+
+@Primary
+@Service
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class BlockingFamilyManagementClientAdapter extends FamilyManagementClient {
+
+    private final ReactiveFamilyManagementClient reactiveClient;
+
+    @Autowired
+    public BlockingFamilyManagementClientAdapter(RestTemplate restTemplate, RequestIdentityMap requestIdentityMap,
+                                                 FamilyCache familyCache,
+                                                 NegativeLookupCache negativeLookupCache,
+                                                 ReactiveFamilyManagementClient reactiveClient) {
+        super(restTemplate, requestIdentityMap, familyCache, negativeLookupCache);
+        this.reactiveClient = reactiveClient;
+    }
+
+    @Override
+    protected Optional<Family> doFindFamilyById(String familyId) {
+        return blockOptional(reactiveClient.findFamilyById(familyId));
+    }
+
+    @Override
+    protected boolean doDeleteFamilyById(String familyId) {
+        return block(reactiveClient.deleteFamilyById(familyId));
+    }
+
+    @Override
+    protected Family doSaveFamily(Family family) {
+        return block(reactiveClient.saveFamily(family));
+    }
+
+    @Override
+    protected Family doUpdateFamily(Family family) {
+        return block(reactiveClient.updateFamily(family));
+    }
+
+    @Override
+    protected boolean doDeleteInvitationById(String invitationId) {
+        return block(reactiveClient.deleteInvitationById(invitationId));
+    }
+
+    @Override
+    protected Invitation doSaveInvitation(Invitation invitation) {
+        return block(reactiveClient.saveInvitation(invitation));
+    }
+
+    @Override
+    protected List<Invitation> doFindAllInvitationsByEmail(String email) {
+        return blockList(reactiveClient.findAllInvitationsByEmail(email));
+    }
+
+    @Override
+    protected List<Invitation> doFindAllInvitationsByFamilyId(String id) {
+        return blockList(reactiveClient.findAllInvitationsByFamilyId(id));
+    }
+
+    @Override
+    protected Optional<Invitation> doFindInvitationByEmailAndFamilyId(String email, String familyId) {
+        return blockOptional(reactiveClient.findInvitationByEmailAndFamilyId(email, familyId));
+    }
+
+    @Override
+    protected Optional<Invitation> doFindInvitationById(String id) {
+        return blockOptional(reactiveClient.findInvitationById(id));
+    }
+}
@@ -0,0 +1,44 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import pl.konradboniecki.budget.mvc.model.Account;
+import pl.konradboniecki.budget.mvc.model.dto.InvitationToFamily;
+
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.block;
+
+/**
+ * Keeps the blocking MailServiceClient API for callers while the calls go through the reactive client.
+ **/
+
+@Primary
+@Service
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class BlockingMailServiceClientAdapter extends MailServiceClient {
+
+    private final ReactiveMailServiceClient reactiveClient;
+
+    @Autowired
+    public BlockingMailServiceClientAdapter(RestTemplate restTemplate, ReactiveMailServiceClient reactiveClient) {
+        super(restTemplate);
+        this.reactiveClient = reactiveClient;
+    }
+
+    @Override
+    public boolean sendSignUpConfirmation(Account account, String activationCode) {
+        return block(reactiveClient.sendSignUpConfirmation(account, activationCode));
+    }
+
+    @Override
+    public boolean sendFamilyInvitationToNewUser(InvitationToFamily invitationToFamily) {
+        return block(reactiveClient.sendFamilyInvitationToNewUser(invitationToFamily));
+    }
+
+    @Override
+    public boolean sendFamilyInvitationToExistingUser(InvitationToFamily invitationToFamily) {
+        return block(reactiveClient.sendFamilyInvitationToExistingUser(invitationToFamily));
+    }
+}
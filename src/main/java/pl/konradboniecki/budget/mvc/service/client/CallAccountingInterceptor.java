@@ -0,0 +1,56 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * CallAccountingInterceptor adds every downstream call to the {@link RequestCallLog} of the request it is made for.
+ * As a WebClient filter it looks the log up when the call is subscribed and records the call when the exchange ends.
+ **/
+
+public class CallAccountingInterceptor implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        Optional<RequestCallLog> callLog = RequestCallLog.current();
+        if (callLog.isEmpty()) {
+            return execution.execute(request, body);
+        }
+        long start = System.nanoTime();
+        try {
+            return execution.execute(request, body);
+        } finally {
+            callLog.get().record(
+                    EndpointLatencies.endpointOf(request.getMethod().name(), request.getURI()),
+                    Downstream.of(request.getURI()).map(Downstream::getServiceName).orElse("other"),
+                    System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            Optional<RequestCallLog> callLog = RequestCallLog.current();
+            if (callLog.isEmpty()) {
+                return next.exchange(request);
+            }
+            long start = System.nanoTime();
+            return next.exchange(request)
+                    .doFinally(signal -> callLog.get().record(
+                            EndpointLatencies.endpointOf(request.method().name(), request.url()),
+                            Downstream.of(request.url()).map(Downstream::getServiceName).orElse("other"),
+                            System.nanoTime() - start));
+        });
+    }
+}
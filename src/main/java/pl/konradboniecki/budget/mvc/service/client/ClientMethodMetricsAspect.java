@@ -0,0 +1,96 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ClientMethodMetricsAspect times every public method of the downstream clients, cache hits included,
+ * by outcome: {@code success}, the status class of a downstream error or the exception type.
+ * Meters are created once per method and outcome, so a call only reads a map and records a duration.
+ **/
+
+@Aspect
+@Component
+public class ClientMethodMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ClientMethodMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * pl.konradboniecki.budget.mvc.service.client..*Client.*(..))"
+            + " && !execution(* pl.konradboniecki.budget.mvc.service.client..Reactive*.*(..))"
+            + " && !execution(* set*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodMeters methodMeters = meters.computeIfAbsent(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), this::register);
+        methodMeters.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            methodMeters.inFlight.decrementAndGet();
+            methodMeters.timer(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private MethodMeters register(Method method) {
+        MethodMeters methodMeters = new MethodMeters(method.getDeclaringClass().getSimpleName(), method.getName());
+        Gauge.builder("budget.client.method.in-flight", methodMeters.inFlight, AtomicInteger::get)
+                .description("Client method calls in progress")
+                .tag("client", methodMeters.client)
+                .tag("method", methodMeters.method)
+                .register(meterRegistry);
+        return methodMeters;
+    }
+
+    static String outcomeOf(Throwable e) {
+        if (e instanceof HttpStatusCodeException statusCodeException) {
+            return statusCodeException.getStatusCode().value() / 100 + "xx";
+        }
+        return e.getClass().getSimpleName();
+    }
+
+    private class MethodMeters {
+        private final String client;
+        private final String method;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+        MethodMeters(String client, String method) {
+            this.client = client;
+            this.method = method;
+        }
+
+        Timer timer(String outcome) {
+            return timers.computeIfAbsent(outcome, key -> Timer.builder("budget.client.method")
+                    .description("Duration of client method calls")
+                    .tag("client", client)
+                    .tag("method", method)
+                    .tag("outcome", key)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * DeadlinePropagationInterceptor fails a downstream call fast when the request deadline has passed,
+ * and otherwise tells the downstream service how long the caller is still willing to wait.
+ * A timeout caused by the shortened budget is reported as an exceeded deadline, not as a broken downstream.
+ * As a WebClient filter it reads the deadline when the call is subscribed, on the thread serving the request,
+ * and ends the exchange when the deadline passes.
+ **/
+
+@Slf4j
+public class DeadlinePropagationInterceptor implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+    private final Counter callsSkipped;
+
+    public DeadlinePropagationInterceptor(MeterRegistry meterRegistry) {
+        this.callsSkipped = Counter.builder("budget.client.deadline.exceeded")
+                .description("Downstream calls not made because the request deadline had passed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        Optional<Duration> remaining = RequestDeadline.remaining();
+        if (remaining.isEmpty()) {
+            return execution.execute(request, body);
+        }
+        if (RequestDeadline.isExceeded()) {
+            callsSkipped.increment();
+            log.warn("Request deadline exceeded, skipping {} {}.", request.getMethod(), request.getURI().getPath());
+            throw new RequestDeadlineExceededException("No time left to call " + request.getURI().getPath() + ".", null);
+        }
+        request.getHeaders().set(RequestDeadline.TIMEOUT_HEADER, String.valueOf(remaining.get().toMillis()));
+        try {
+            return execution.execute(request, body);
+        } catch (IOException e) {
+            if (RequestDeadline.isExceeded()) {
+                throw new RequestDeadlineExceededException(
+                        "Request deadline exceeded while calling " + request.getURI().getPath() + ".", e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            Optional<Duration> remaining = RequestDeadline.remaining();
+            if (remaining.isEmpty()) {
+                return next.exchange(request);
+            }
+            if (RequestDeadline.isExceeded()) {
+                callsSkipped.increment();
+                log.warn("Request deadline exceeded, skipping {} {}.", request.method(), request.url().getPath());
+                return Mono.error(new RequestDeadlineExceededException(
+                        "No time left to call " + request.url().getPath() + ".", null));
+            }
+            ClientRequest withTimeout = ClientRequest.from(request)
+                    .header(RequestDeadline.TIMEOUT_HEADER, String.valueOf(remaining.get().toMillis()))
+                    .build();
+            return next.exchange(withTimeout)
+                    .timeout(remaining.get())
+                    .onErrorMap(TimeoutException.class, e -> new RequestDeadlineExceededException(
+                            "Request deadline exceeded while calling " + request.url().getPath() + ".", e));
+        });
+    }
+}
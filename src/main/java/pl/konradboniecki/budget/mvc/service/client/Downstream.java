@@ -0,0 +1,39 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import lombok.Getter;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Downstream services called by the clients in this package. Names match the keys of {@code budget.baseUrl}.
+ * All of them may sit behind one gateway, so a downstream is recognised by the path of the request.
+ **/
+
+public enum Downstream {
+
+    ACCOUNT_MANAGEMENT("accountManagement", "/api/account-mgt/"),
+    FAMILY_MANAGEMENT("familyManagement", "/api/family-mgt/"),
+    BUDGET_MANAGEMENT("budgetManagement", "/api/budget-mgt/"),
+    MAIL("mail", "/api/mail/");
+
+    @Getter
+    private final String serviceName;
+    private final String pathPrefix;
+
+    Downstream(String serviceName, String pathPrefix) {
+        this.serviceName = serviceName;
+        this.pathPrefix = pathPrefix;
+    }
+
+    public static Optional<Downstream> of(URI uri) {
+        String path = uri.getPath();
+        if (path == null) {
+            return Optional.empty();
+        }
+        return Arrays.stream(values())
+                .filter(downstream -> path.startsWith(downstream.pathPrefix))
+                .findFirst();
+    }
+}
@@ -0,0 +1,188 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DownstreamResilienceInterceptor passes each call through the circuit breaker and the bulkhead of its downstream.
+ * Connection errors and 5xx responses count as failures. 4xx responses are answers of a healthy service.
+ * A call that fails after the request deadline has passed is not counted: the caller gave up,
+ * not the downstream, and slow requests must not open the breaker for everyone.
+ * The bulkhead permit is held until the response is closed, so reading the body counts as part of the call.
+ * As a WebClient filter it holds the permit until the response body has been consumed or released.
+ **/
+
+public class DownstreamResilienceInterceptor implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public DownstreamResilienceInterceptor(CircuitBreakerRegistry circuitBreakerRegistry,
+                                           BulkheadRegistry bulkheadRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        Optional<Downstream> downstream = Downstream.of(request.getURI());
+        if (downstream.isEmpty()) {
+            return execution.execute(request, body);
+        }
+        String serviceName = downstream.get().getServiceName();
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(serviceName);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(serviceName);
+
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new DownstreamUnavailableException(downstream.get(),
+                    "Circuit breaker of " + serviceName + " is " + circuitBreaker.getState() + ".", null);
+        }
+        if (!bulkhead.tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+            throw new DownstreamUnavailableException(downstream.get(),
+                    "Too many concurrent calls to " + serviceName + ".", null);
+        }
+        long start = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            long duration = System.nanoTime() - start;
+            if (response.getStatusCode().is5xxServerError()) {
+                circuitBreaker.onError(duration, TimeUnit.NANOSECONDS,
+                        new HttpServerErrorException(response.getStatusCode()));
+            } else {
+                circuitBreaker.onSuccess(duration, TimeUnit.NANOSECONDS);
+            }
+            return new BulkheadReleasingResponse(response, bulkhead);
+        } catch (IOException | RuntimeException e) {
+            if (RequestDeadline.isExceeded()) {
+                circuitBreaker.releasePermission();
+            } else {
+                circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            }
+            bulkhead.onComplete();
+            throw e;
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            Optional<Downstream> downstream = Downstream.of(request.url());
+            if (downstream.isEmpty()) {
+                return next.exchange(request);
+            }
+            String serviceName = downstream.get().getServiceName();
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(serviceName);
+            Bulkhead bulkhead = bulkheadRegistry.bulkhead(serviceName);
+
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Mono.error(new DownstreamUnavailableException(downstream.get(),
+                        "Circuit breaker of " + serviceName + " is " + circuitBreaker.getState() + ".", null));
+            }
+            if (!bulkhead.tryAcquirePermission()) {
+                circuitBreaker.releasePermission();
+                return Mono.error(new DownstreamUnavailableException(downstream.get(),
+                        "Too many concurrent calls to " + serviceName + ".", null));
+            }
+            long start = System.nanoTime();
+            // read while subscribing, the exchange completes on a thread without the request
+            Optional<Duration> remaining = RequestDeadline.remaining();
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    bulkhead.onComplete();
+                }
+            };
+            return next.exchange(request)
+                    .doOnNext(response -> {
+                        long duration = System.nanoTime() - start;
+                        if (response.statusCode().is5xxServerError()) {
+                            circuitBreaker.onError(duration, TimeUnit.NANOSECONDS,
+                                    new HttpServerErrorException(response.statusCode()));
+                        } else {
+                            circuitBreaker.onSuccess(duration, TimeUnit.NANOSECONDS);
+                        }
+                    })
+                    .doOnError(e -> {
+                        long duration = System.nanoTime() - start;
+                        if (remaining.isPresent() && duration >= remaining.get().toNanos()) {
+                            circuitBreaker.releasePermission();
+                        } else {
+                            circuitBreaker.onError(duration, TimeUnit.NANOSECONDS, e);
+                        }
+                        release.run();
+                    })
+                    .doOnCancel(() -> {
+                        circuitBreaker.releasePermission();
+                        release.run();
+                    })
+                    .map(response -> response.mutate()
+                            .body(body -> body.doFinally(signal -> release.run()))
+                            .build());
+        });
+    }
+
+    private static class BulkheadReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        BulkheadReleasingResponse(ClientHttpResponse delegate, Bulkhead bulkhead) {
+            this.delegate = delegate;
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    bulkhead.onComplete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import lombok.Getter;
+
+/**
+ * Thrown without calling a downstream service when its circuit breaker is open or its bulkhead is full.
+ **/
+
+public class DownstreamUnavailableException extends RuntimeException {
+
+    @Getter
+    private final Downstream downstream;
+
+    public DownstreamUnavailableException(Downstream downstream, String message, Throwable cause) {
+        super(message, cause);
+        this.downstream = downstream;
+    }
+}
@@ -0,0 +1,83 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * EndpointLatencies keeps a sliding window of recent response times per endpoint and answers percentile queries.
+ * Path segments holding ids or emails are folded, so {@code /budgets/1/jars} and {@code /budgets/2/jars}
+ * are the same endpoint.
+ **/
+
+public class EndpointLatencies {
+
+    private static final Pattern ID_SEGMENT = Pattern.compile(
+            "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|\\d+|.*@.*");
+    private static final int MAX_ENDPOINTS = 500;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final int windowSize;
+
+    public EndpointLatencies(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public static String endpointOf(String method, URI uri) {
+        StringBuilder endpoint = new StringBuilder(method).append(' ');
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            endpoint.append('/').append(ID_SEGMENT.matcher(segment).matches() ? "{id}" : segment);
+        }
+        return endpoint.toString();
+    }
+
+    public void record(String endpoint, long nanos) {
+        Window window = windows.get(endpoint);
+        if (window == null) {
+            if (windows.size() >= MAX_ENDPOINTS) {
+                return;
+            }
+            window = windows.computeIfAbsent(endpoint, key -> new Window(windowSize));
+        }
+        window.record(nanos);
+    }
+
+    public Optional<Duration> percentile(String endpoint, double percentile, int minimumSamples) {
+        Window window = windows.get(endpoint);
+        return window == null ? Optional.empty() : window.percentile(percentile, minimumSamples);
+    }
+
+    private static class Window {
+        private final long[] samples;
+        private int next;
+        private int count;
+
+        Window(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        synchronized Optional<Duration> percentile(double percentile, int minimumSamples) {
+            if (count < minimumSamples) {
+                return Optional.empty();
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(count - 1, Math.ceil(percentile * count) - 1);
+            return Optional.of(Duration.ofNanos(sorted[Math.max(index, 0)]));
+        }
+    }
+}
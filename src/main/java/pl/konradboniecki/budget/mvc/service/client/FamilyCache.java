@@ -0,0 +1,60 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.konradboniecki.budget.mvc.model.Family;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * FamilyCache keeps families by id. Concurrent misses for the same id wait for a single downstream call.
+ * Entries are copied in and out, so callers modifying a returned family do not change the cached one.
+ **/
+
+@Component
+public class FamilyCache {
+
+    private final Cache<String, Family> familiesById;
+
+    @Autowired
+    public FamilyCache(MeterRegistry meterRegistry,
+                       @Value("${budget.cache.family.maximum-size:5000}") long maximumSize,
+                       @Value("${budget.cache.family.ttl:5m}") Duration ttl) {
+        this.familiesById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, familiesById, "families");
+    }
+
+    public Optional<Family> findById(String familyId, Function<String, Optional<Family>> fetch) {
+        Family family = familiesById.get(familyId, id -> fetch.apply(id).map(FamilyCache::copy).orElse(null));
+        return Optional.ofNullable(family).map(FamilyCache::copy);
+    }
+
+    public void put(Family family) {
+        if (family != null && family.getId() != null) {
+            familiesById.put(family.getId(), copy(family));
+        }
+    }
+
+    public void evict(String familyId) {
+        familiesById.invalidate(familyId);
+    }
+
+    private static Family copy(Family family) {
+        return new Family()
+                .setId(family.getId())
+                .setOwnerId(family.getOwnerId())
+                .setBudgetId(family.getBudgetId())
+                .setTitle(family.getTitle());
+    }
+}
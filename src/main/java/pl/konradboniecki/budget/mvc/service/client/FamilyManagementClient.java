@@ -1,5 +1,7 @@
 package pl.konradboniecki.budget.mvc.service.client;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,15 +13,14 @@ import org.springframework.web.client.RestTemplate;
 import pl.konradboniecki.budget.mvc.model.Family;
 import pl.konradboniecki.budget.mvc.model.Invitation;
 import pl.konradboniecki.budget.openapi.dto.model.OASInvitation;
-import pl.konradboniecki.budget.openapi.dto.model.OASInvitationPage;
 import pl.konradboniecki.chassis.exceptions.BadRequestException;
 import pl.konradboniecki.chassis.exceptions.ResourceConflictException;
 import pl.konradboniecki.chassis.exceptions.ResourceNotFoundException;
 import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -30,31 +31,54 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
 @Service
 public class FamilyManagementClient {
     private static final String BASE_PATH = "/api/family-mgt/v1";
+    private static final String FAMILY_KEYS = "family:";
+    private static final String INVITATION_KEYS = "invitation:";
+    private static final String INVITATION_BY_ID_KEY = INVITATION_KEYS + "id:";
+    private static final String INVITATION_BY_EMAIL_KEY = INVITATION_KEYS + "email:";
+    private static final String INVITATIONS_BY_EMAIL_KEY = INVITATION_KEYS + "all-by-email:";
+    private static final String INVITATIONS_BY_FAMILY_KEY = INVITATION_KEYS + "all-by-family:";
 
     private final RestTemplate restTemplate;
+    private final RestTemplate lookupTemplate;
+    private final RequestIdentityMap requestIdentityMap;
+    private final FamilyCache familyCache;
+    private final NegativeLookupCache negativeLookupCache;
     @Setter
     @Value("${budget.baseUrl.familyManagement}")
     private String gatewayUrl;
 
     @Autowired
-    public FamilyManagementClient(RestTemplate restTemplate) {
+    public FamilyManagementClient(RestTemplate restTemplate, RequestIdentityMap requestIdentityMap,
+                                  FamilyCache familyCache, NegativeLookupCache negativeLookupCache) {
         this.restTemplate = restTemplate;
+        this.lookupTemplate = NotFoundAsEmpty.tolerantCopyOf(restTemplate);
+        this.requestIdentityMap = requestIdentityMap;
+        this.familyCache = familyCache;
+        this.negativeLookupCache = negativeLookupCache;
     }
 
     public Optional<Family> findFamilyById(String familyId) {
+        String key = FAMILY_KEYS + familyId;
+        return requestIdentityMap.lookup(key, () -> familyCache.findById(familyId,
+                id -> requestIdentityMap.shared(key, () -> doFindFamilyById(id))));
+    }
+
+    protected Optional<Family> doFindFamilyById(String familyId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
-        HttpEntity<?> httpEntity = new HttpEntity<>(headers);
         try {
-            ResponseEntity<Family> responseEntity = restTemplate.exchange(
+            Optional<Family> family = lookupTemplate.execute(
                     gatewayUrl + BASE_PATH + "/families/{familyId}",
                     HttpMethod.GET,
-                    httpEntity, Family.class, familyId);
-            return Optional.ofNullable(responseEntity.getBody());
+                    PagedItemsDecoder.withHeaders(headers),
+                    NotFoundAsEmpty.bodyOf(Family.class, lookupTemplate), familyId);
+            if (family.isEmpty()) {
+                log.info("Family with id: {} not found.", familyId);
+            }
+            return family;
         } catch (HttpClientErrorException e) {
-            e.printStackTrace();
-            log.error("Family with id: " + familyId + " not found.");
+            log.error("Failed to fetch family with id: {}, status: {}.", familyId, e.getStatusCode());
             return Optional.empty();
         }
     }
@@ -64,22 +88,32 @@ public class FamilyManagementClient {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
-        HttpEntity<?> httpEntity = new HttpEntity<>(headers);
         try {
-            ResponseEntity<Family> responseEntity = restTemplate.exchange(
+            Optional<Family> family = lookupTemplate.execute(
                     gatewayUrl + BASE_PATH + "/families/owners/{ownerId}",
                     HttpMethod.GET,
-                    httpEntity, Family.class, ownerId);
-            return Optional.ofNullable(responseEntity.getBody());
+                    PagedItemsDecoder.withHeaders(headers),
+                    NotFoundAsEmpty.bodyOf(Family.class, lookupTemplate), ownerId);
+            if (family.isEmpty()) {
+                log.info("Family with ownerId: {} not found.", ownerId);
+            }
+            return family;
         } catch (HttpClientErrorException e) {
-            e.printStackTrace();
-            log.error("Family with ownerId: " + ownerId + " not found.");
+            log.error("Failed to fetch family with ownerId: {}, status: {}.", ownerId, e.getStatusCode());
             return Optional.empty();
         }
     }
 
 
     public boolean deleteFamilyById(String familyId) {
+        try {
+            return requestIdentityMap.invalidateAfter(() -> doDeleteFamilyById(familyId), FAMILY_KEYS, INVITATION_KEYS);
+        } finally {
+            familyCache.evict(familyId);
+        }
+    }
+
+    protected boolean doDeleteFamilyById(String familyId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
@@ -96,6 +130,12 @@ public class FamilyManagementClient {
     }
 
     public Family saveFamily(Family family) {
+        Family savedFamily = requestIdentityMap.invalidateAfter(() -> doSaveFamily(family), FAMILY_KEYS);
+        familyCache.put(savedFamily);
+        return savedFamily;
+    }
+
+    protected Family doSaveFamily(Family family) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(APPLICATION_JSON);
         headers.setAccept(singletonList(APPLICATION_JSON));
@@ -116,6 +156,17 @@ public class FamilyManagementClient {
     }
 
     public Family updateFamily(Family family) {
+        try {
+            Family updatedFamily = requestIdentityMap.invalidateAfter(() -> doUpdateFamily(family), FAMILY_KEYS);
+            familyCache.put(updatedFamily);
+            return updatedFamily;
+        } catch (RuntimeException e) {
+            familyCache.evict(family.getId());
+            throw e;
+        }
+    }
+
+    protected Family doUpdateFamily(Family family) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(APPLICATION_JSON);
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
@@ -132,6 +183,10 @@ public class FamilyManagementClient {
     }
 
     public boolean deleteInvitationById(String invitationId) {
+        return requestIdentityMap.invalidateAfter(() -> doDeleteInvitationById(invitationId), INVITATION_KEYS);
+    }
+
+    protected boolean doDeleteInvitationById(String invitationId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
@@ -150,6 +205,15 @@ public class FamilyManagementClient {
     }
 
     public Invitation saveInvitation(Invitation invitation) {
+        try {
+            return requestIdentityMap.invalidateAfter(() -> doSaveInvitation(invitation), INVITATION_KEYS);
+        } finally {
+            negativeLookupCache.invalidate(NegativeLookupCache.INVITATIONS_BY_EMAIL_AND_FAMILY,
+                    invitationKey(invitation.getEmail(), invitation.getFamilyId()));
+        }
+    }
+
+    protected Invitation doSaveInvitation(Invitation invitation) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(APPLICATION_JSON);
         headers.setAccept(singletonList(APPLICATION_JSON));
@@ -164,49 +228,72 @@ public class FamilyManagementClient {
     }
 
     public List<Invitation> findAllInvitationsByEmail(String email) {
+        String key = INVITATIONS_BY_EMAIL_KEY + email;
+        return requestIdentityMap.lookup(key, () -> requestIdentityMap.shared(key,
+                () -> doFindAllInvitationsByEmail(email), FamilyManagementClient::copyOf));
+    }
+
+    protected List<Invitation> doFindAllInvitationsByEmail(String email) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
-        HttpEntity<?> httpEntity = new HttpEntity<>(headers);
         try {
-            ResponseEntity<OASInvitationPage> responseEntity = restTemplate.exchange(
+            return restTemplate.execute(
                     gatewayUrl + BASE_PATH + "/invitations?email={email}",
                     HttpMethod.GET,
-                    httpEntity, OASInvitationPage.class, email);
-            return mapToInvitationList(responseEntity.getBody().getItems());
+                    PagedItemsDecoder.withHeaders(headers),
+                    PagedItemsDecoder.listOf(FamilyManagementClient::readInvitation), email);
         } catch (HttpClientErrorException e) {
             log.error("Failed to fetch all invitations for email: " + email);
             return Collections.emptyList();
         }
     }
 
-    private List<Invitation> mapToInvitationList(List<OASInvitation> oasInvitation) {
-        return oasInvitation.stream()
-                .filter(Objects::nonNull)
-                .map(oasInvitation1 ->
-                    new Invitation()
-                            .setId(oasInvitation1.getId())
-                            .setFamilyId(oasInvitation1.getFamilyId())
-                            .setEmail(oasInvitation1.getEmail())
-                            .setInvitationCode(oasInvitation1.getInvitationCode())
-                            .setCreated(oasInvitation1.getCreated())
-                            .setRegistered(oasInvitation1.getRegistered())
-                )
-                .collect(Collectors.toList());
+    static Invitation toInvitation(OASInvitation oasInvitation) {
+        return new Invitation()
+                .setId(oasInvitation.getId())
+                .setFamilyId(oasInvitation.getFamilyId())
+                .setEmail(oasInvitation.getEmail())
+                .setInvitationCode(oasInvitation.getInvitationCode())
+                .setCreated(oasInvitation.getCreated())
+                .setRegistered(oasInvitation.getRegistered());
+    }
+
+    static Invitation readInvitation(JsonParser parser) throws IOException {
+        Invitation invitation = new Invitation();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> invitation.setId(PagedItemsDecoder.text(parser));
+                case "familyId" -> invitation.setFamilyId(PagedItemsDecoder.text(parser));
+                case "email" -> invitation.setEmail(PagedItemsDecoder.text(parser));
+                case "invitationCode" -> invitation.setInvitationCode(PagedItemsDecoder.text(parser));
+                case "created" -> invitation.setCreated(PagedItemsDecoder.instant(parser));
+                case "registered" -> invitation.setRegistered(PagedItemsDecoder.booleanValue(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return invitation;
     }
 
     public List<Invitation> findAllInvitationsByFamilyId(String id) {
+        String key = INVITATIONS_BY_FAMILY_KEY + id;
+        return requestIdentityMap.lookup(key, () -> requestIdentityMap.shared(key,
+                () -> doFindAllInvitationsByFamilyId(id), FamilyManagementClient::copyOf));
+    }
+
+    protected List<Invitation> doFindAllInvitationsByFamilyId(String id) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
-        HttpEntity<?> httpEntity = new HttpEntity<>(headers);
 
         try {
-            ResponseEntity<OASInvitationPage> responseEntity = restTemplate.exchange(
+            return restTemplate.execute(
                     gatewayUrl + BASE_PATH + "/invitations?familyId=" + id,
                     HttpMethod.GET,
-                    httpEntity, OASInvitationPage.class);
-            return mapToInvitationList(responseEntity.getBody().getItems());
+                    PagedItemsDecoder.withHeaders(headers),
+                    PagedItemsDecoder.listOf(FamilyManagementClient::readInvitation));
         } catch (HttpClientErrorException e) {
             log.error("Failed to fetch all invitations to family with id: " + id, e);
             return Collections.emptyList();
@@ -214,39 +301,77 @@ public class FamilyManagementClient {
     }
 
     public Optional<Invitation> findInvitationByEmailAndFamilyId(String email, String familyId) {
+        String key = INVITATION_BY_EMAIL_KEY + email + ":" + familyId;
+        return requestIdentityMap.lookup(key,
+                () -> negativeLookupCache.find(NegativeLookupCache.INVITATIONS_BY_EMAIL_AND_FAMILY,
+                        invitationKey(email, familyId), () -> requestIdentityMap.shared(key,
+                                () -> doFindInvitationByEmailAndFamilyId(email, familyId),
+                                invitation -> invitation.map(FamilyManagementClient::copy))));
+    }
+
+    private static List<Invitation> copyOf(List<Invitation> invitations) {
+        return invitations.stream()
+                .map(FamilyManagementClient::copy)
+                .collect(Collectors.toList());
+    }
+
+    private static Invitation copy(Invitation invitation) {
+        return new Invitation()
+                .setId(invitation.getId())
+                .setFamilyId(invitation.getFamilyId())
+                .setEmail(invitation.getEmail())
+                .setInvitationCode(invitation.getInvitationCode())
+                .setCreated(invitation.getCreated())
+                .setRegistered(invitation.getRegistered());
+    }
+
+    private static String invitationKey(String email, String familyId) {
+        return (email == null ? null : email.toLowerCase()) + ":" + familyId;
+    }
+
+    protected Optional<Invitation> doFindInvitationByEmailAndFamilyId(String email, String familyId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
-        HttpEntity<?> httpEntity = new HttpEntity<>(headers);
 
         try {
-            ResponseEntity<OASInvitationPage> responseEntity = restTemplate.exchange(
+            return lookupTemplate.execute(
                     gatewayUrl + BASE_PATH + "/invitations?email={email}&familyId={familyId}",
-                    HttpMethod.GET, httpEntity,
-                    OASInvitationPage.class, email, familyId);
-            return mapToInvitationList(responseEntity.getBody().getItems())
-                    .stream()
-                    .findFirst();
+                    HttpMethod.GET,
+                    PagedItemsDecoder.withHeaders(headers),
+                    NotFoundAsEmpty.orEmpty(
+                            PagedItemsDecoder.firstOf(FamilyManagementClient::readInvitation, invitation -> true)),
+                    email, familyId);
         } catch (HttpClientErrorException e) {
-            log.error("FamilyInvitation with email: {} and id: {} not found.", email, familyId, e);
+            log.error("Failed to fetch invitation with email: {} and familyId: {}, status: {}.",
+                    email, familyId, e.getStatusCode());
             return Optional.empty();
         }
     }
 
     public Optional<Invitation> findInvitationById(String id) {
+        String key = INVITATION_BY_ID_KEY + id;
+        return requestIdentityMap.lookup(key, () -> requestIdentityMap.shared(key,
+                () -> doFindInvitationById(id), invitation -> invitation.map(FamilyManagementClient::copy)));
+    }
+
+    protected Optional<Invitation> doFindInvitationById(String id) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
-        HttpEntity<?> httpEntity = new HttpEntity<>(headers);
 
         try {
-            ResponseEntity<Invitation> responseEntity = restTemplate.exchange(
+            Optional<Invitation> invitation = lookupTemplate.execute(
                     gatewayUrl + BASE_PATH + "/invitations/" + id,
                     HttpMethod.GET,
-                    httpEntity, Invitation.class);
-            return Optional.ofNullable(responseEntity.getBody());
+                    PagedItemsDecoder.withHeaders(headers),
+                    NotFoundAsEmpty.bodyOf(Invitation.class, lookupTemplate));
+            if (invitation.isEmpty()) {
+                log.info("FamilyInvitation with id: {} not found.", id);
+            }
+            return invitation;
         } catch (HttpClientErrorException e) {
-            log.error("FamilyInvitation with id:" + id + " not found.", e);
+            log.error("Failed to fetch invitation with id: {}, status: {}.", id, e.getStatusCode());
             return Optional.empty();
         }
     }
@@ -0,0 +1,35 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+/**
+ * HedgeBudget limits hedged attempts to a percentage of all hedgeable requests.
+ * Every request earns a fraction of a token and every hedge spends a whole one; unused tokens are capped,
+ * so a quiet period cannot be turned into a burst of hedges.
+ **/
+
+public class HedgeBudget {
+
+    private final double tokensPerRequest;
+    private final double maxTokens;
+    private double tokens;
+
+    public HedgeBudget(double budgetPercent, double maxTokens) {
+        this.tokensPerRequest = budgetPercent / 100;
+        this.maxTokens = maxTokens;
+    }
+
+    public synchronized void onRequest() {
+        tokens = Math.min(maxTokens, tokens + tokensPerRequest);
+    }
+
+    public synchronized boolean hasToken() {
+        return tokens >= 1;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
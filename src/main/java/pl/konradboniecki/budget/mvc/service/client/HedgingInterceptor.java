@@ -0,0 +1,201 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HedgingInterceptor sends a second attempt of a GET when the first one has not answered within
+ * the latency percentile of its endpoint, and returns whichever response comes first.
+ * The response that loses the race is closed, so its connection goes back to the pool.
+ * As an {@link AttemptInterceptor} it has a chain of its own, so each attempt is a fresh request to the HTTP engine.
+ * Racing needs the first attempt off the calling thread; it is moved to the executor only while the hedge budget
+ * can pay for a second attempt, otherwise it runs on the calling thread.
+ **/
+
+@Slf4j
+public class HedgingInterceptor implements AttemptInterceptor {
+
+    private final EndpointLatencies latencies;
+    private final HedgeBudget budget;
+    private final Executor executor;
+    private final double percentile;
+    private final int minimumSamples;
+    private final Duration minimumDelay;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+    private final Counter hedgesRejected;
+
+    public HedgingInterceptor(EndpointLatencies latencies, HedgeBudget budget, Executor executor,
+                              double percentile, int minimumSamples, Duration minimumDelay,
+                              MeterRegistry meterRegistry) {
+        this.latencies = latencies;
+        this.budget = budget;
+        this.executor = executor;
+        this.percentile = percentile;
+        this.minimumSamples = minimumSamples;
+        this.minimumDelay = minimumDelay;
+        this.hedgesSent = Counter.builder("budget.client.hedge.sent")
+                .description("Second attempts sent for slow downstream GETs")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("budget.client.hedge.won")
+                .description("Second attempts that answered before the first one")
+                .register(meterRegistry);
+        this.hedgesRejected = Counter.builder("budget.client.hedge.rejected")
+                .description("Second attempts not sent because the hedge budget was spent")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            return execution.execute(request, body);
+        }
+        String endpoint = EndpointLatencies.endpointOf(request.getMethod().name(), request.getURI());
+        budget.onRequest();
+        Optional<Duration> hedgeDelay = latencies.percentile(endpoint, percentile, minimumSamples);
+        if (hedgeDelay.isEmpty()) {
+            return timedExecute(endpoint, request, body, execution);
+        }
+
+        long delayNanos = Math.max(hedgeDelay.get().toNanos(), minimumDelay.toNanos());
+        if (!budget.hasToken()) {
+            return executeUnhedged(endpoint, request, body, execution, delayNanos);
+        }
+        CompletableFuture<ClientHttpResponse> primary;
+        try {
+            primary = submit(endpoint, request, body, execution);
+        } catch (RejectedExecutionException e) {
+            return timedExecute(endpoint, request, body, execution);
+        }
+        try {
+            return primary.get(delayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return hedge(endpoint, request, body, execution, primary);
+        } catch (InterruptedException e) {
+            closeWhenDone(primary);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + endpoint);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private ClientHttpResponse executeUnhedged(String endpoint, HttpRequest request, byte[] body,
+                                               ClientHttpRequestExecution execution,
+                                               long delayNanos) throws IOException {
+        long start = System.nanoTime();
+        ClientHttpResponse response = timedExecute(endpoint, request, body, execution);
+        if (System.nanoTime() - start > delayNanos) {
+            hedgesRejected.increment();
+        }
+        return response;
+    }
+
+    private ClientHttpResponse hedge(String endpoint, HttpRequest request, byte[] body,
+                                     ClientHttpRequestExecution execution,
+                                     CompletableFuture<ClientHttpResponse> primary) throws IOException {
+        if (!budget.tryAcquire()) {
+            hedgesRejected.increment();
+            return await(endpoint, primary);
+        }
+        CompletableFuture<ClientHttpResponse> secondary;
+        try {
+            secondary = submit(endpoint, request, body, execution);
+        } catch (RejectedExecutionException e) {
+            return await(endpoint, primary);
+        }
+        hedgesSent.increment();
+        log.debug("Hedging {} after no answer within the p{} latency.", endpoint, percentile * 100);
+
+        CompletableFuture<ClientHttpResponse> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((response, error) -> race(first, failures, response, error, null));
+        secondary.whenComplete((response, error) -> race(first, failures, response, error, hedgesWon));
+        return await(endpoint, first);
+    }
+
+    private void race(CompletableFuture<ClientHttpResponse> first, AtomicInteger failures,
+                      ClientHttpResponse response, Throwable error, Counter winCounter) {
+        if (error != null) {
+            if (failures.incrementAndGet() == 2) {
+                first.completeExceptionally(error);
+            }
+        } else if (first.complete(response)) {
+            if (winCounter != null) {
+                winCounter.increment();
+            }
+        } else {
+            response.close();
+        }
+    }
+
+    private CompletableFuture<ClientHttpResponse> submit(String endpoint, HttpRequest request, byte[] body,
+                                                         ClientHttpRequestExecution execution) {
+        CompletableFuture<ClientHttpResponse> attempt = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                attempt.complete(timedExecute(endpoint, request, body, execution));
+            } catch (Throwable e) {
+                attempt.completeExceptionally(e);
+            }
+        });
+        return attempt;
+    }
+
+    private ClientHttpResponse timedExecute(String endpoint, HttpRequest request, byte[] body,
+                                            ClientHttpRequestExecution execution) throws IOException {
+        long start = System.nanoTime();
+        ClientHttpResponse response = execution.execute(request, body);
+        latencies.record(endpoint, System.nanoTime() - start);
+        return response;
+    }
+
+    private ClientHttpResponse await(String endpoint, CompletableFuture<ClientHttpResponse> attempt) throws IOException {
+        try {
+            return attempt.get();
+        } catch (InterruptedException e) {
+            closeWhenDone(attempt);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + endpoint);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static void closeWhenDone(CompletableFuture<ClientHttpResponse> attempt) {
+        attempt.thenAccept(ClientHttpResponse::close);
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException ioException) {
+            return ioException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        throw new UncheckedIOException(new IOException(cause));
+    }
+}
@@ -0,0 +1,74 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * NegativeLookupCache remembers for a short time which lookups found nothing, so repeated questions
+ * about e.g. a not yet registered email do not reach the downstream service.
+ * Writes that create the missing entity must call {@link #invalidate}. A miss fetched while any
+ * invalidation happened is not stored, so it cannot hide an entity created in the meantime.
+ **/
+
+@Component
+public class NegativeLookupCache {
+
+    public static final String ACCOUNTS_BY_EMAIL = "accounts.byEmail";
+    public static final String INVITATIONS_BY_EMAIL_AND_FAMILY = "invitations.byEmailAndFamily";
+
+    private final Cache<String, Boolean> misses;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public NegativeLookupCache(MeterRegistry meterRegistry,
+                               @Value("${budget.cache.negative.maximum-size:10000}") long maximumSize,
+                               @Value("${budget.cache.negative.ttl:30s}") Duration ttl) {
+        this.meterRegistry = meterRegistry;
+        this.misses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, misses, "negativeLookups");
+    }
+
+    public <T> Optional<T> find(String cacheName, String key, Supplier<Optional<T>> fetch) {
+        String entryKey = entryKey(cacheName, key);
+        if (misses.getIfPresent(entryKey) != null) {
+            counter("budget.cache.negative.hits", cacheName).increment();
+            return Optional.empty();
+        }
+        long invalidationsBefore = invalidations.get();
+        Optional<T> fetched = fetch.get();
+        if (fetched.isEmpty() && invalidations.get() == invalidationsBefore) {
+            misses.put(entryKey, Boolean.TRUE);
+            counter("budget.cache.negative.stored", cacheName).increment();
+        }
+        return fetched;
+    }
+
+    public void invalidate(String cacheName, String key) {
+        invalidations.incrementAndGet();
+        misses.invalidate(entryKey(cacheName, key));
+    }
+
+    private Counter counter(String name, String cacheName) {
+        return meterRegistry.counter(name, "cache", cacheName);
+    }
+
+    private static String entryKey(String cacheName, String key) {
+        return cacheName + ":" + key;
+    }
+}
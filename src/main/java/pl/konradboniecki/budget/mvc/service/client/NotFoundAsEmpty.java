@@ -0,0 +1,57 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.HttpMessageConverterExtractor;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * NotFoundAsEmpty reads lookups for which 404 is an expected answer.
+ * They go through a copy of the client's RestTemplate whose error handler lets 404 through,
+ * so a miss becomes {@code Optional.empty()} without creating, throwing and logging an exception.
+ * Other error statuses are still thrown as usual.
+ **/
+
+public final class NotFoundAsEmpty {
+
+    private NotFoundAsEmpty() {
+    }
+
+    /**
+     * The copy shares the request factory, and with it the interceptors, of the given RestTemplate.
+     **/
+    public static RestTemplate tolerantCopyOf(RestTemplate restTemplate) {
+        RestTemplate copy = new RestTemplate(restTemplate.getRequestFactory());
+        copy.setMessageConverters(restTemplate.getMessageConverters());
+        copy.setUriTemplateHandler(restTemplate.getUriTemplateHandler());
+        copy.setErrorHandler(new NotFoundTolerantErrorHandler());
+        return copy;
+    }
+
+    public static <T> ResponseExtractor<Optional<T>> bodyOf(Class<T> type, RestTemplate restTemplate) {
+        HttpMessageConverterExtractor<T> bodyExtractor =
+                new HttpMessageConverterExtractor<>(type, restTemplate.getMessageConverters());
+        return response -> isNotFound(response) ? Optional.empty() : Optional.ofNullable(bodyExtractor.extractData(response));
+    }
+
+    public static <T> ResponseExtractor<Optional<T>> orEmpty(ResponseExtractor<Optional<T>> extractor) {
+        return response -> isNotFound(response) ? Optional.empty() : extractor.extractData(response);
+    }
+
+    static boolean isNotFound(ClientHttpResponse response) throws IOException {
+        return response.getStatusCode().value() == HttpStatus.NOT_FOUND.value();
+    }
+
+    static class NotFoundTolerantErrorHandler extends DefaultResponseErrorHandler {
+
+        @Override
+        public boolean hasError(ClientHttpResponse response) throws IOException {
+            return !isNotFound(response) && super.hasError(response);
+        }
+    }
+}
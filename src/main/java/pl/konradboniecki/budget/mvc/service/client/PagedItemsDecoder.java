@@ -0,0 +1,208 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import pl.konradboniecki.budget.mvc.model.ResultPage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * PagedItemsDecoder reads the {@code items} array of a paged downstream response token by token
+ * and builds domain models directly, without the intermediate page DTO and its item list.
+ * Null items are skipped; {@link #firstOf} stops reading at the first matching item.
+ * Fields other than {@code items} and the paging {@code meta} are skipped.
+ **/
+
+public final class PagedItemsDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String ITEMS_FIELD = "items";
+    private static final String META_FIELD = "meta";
+
+    private PagedItemsDecoder() {
+    }
+
+    /**
+     * Reads one item; the parser is positioned at its START_OBJECT and has to be left at its END_OBJECT.
+     **/
+    @FunctionalInterface
+    public interface ItemReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    public static RequestCallback withHeaders(HttpHeaders headers) {
+        return request -> request.getHeaders().putAll(headers);
+    }
+
+    public static <T> ResponseExtractor<List<T>> listOf(ItemReader<T> itemReader) {
+        return response -> decodeList(response.getBody(), itemReader);
+    }
+
+    public static <T> ResponseExtractor<Optional<T>> firstOf(ItemReader<T> itemReader, Predicate<T> match) {
+        return response -> decodeFirst(response.getBody(), itemReader, match);
+    }
+
+    /**
+     * Reads one page of items with its paging metadata; values missing from the metadata are taken from the request.
+     **/
+    public static <T> ResponseExtractor<ResultPage<T>> pageOf(ItemReader<T> itemReader, int page, int pageSize) {
+        return response -> decodePage(response.getBody(), itemReader, page, pageSize);
+    }
+
+    public static <T> List<T> decodeList(InputStream body, ItemReader<T> itemReader) throws IOException {
+        List<T> items = new ArrayList<>();
+        readItems(body, itemReader, item -> {
+            items.add(item);
+            return false;
+        }, null);
+        return items;
+    }
+
+    public static <T> Optional<T> decodeFirst(InputStream body, ItemReader<T> itemReader, Predicate<T> match) throws IOException {
+        List<T> found = new ArrayList<>(1);
+        readItems(body, itemReader, item -> match.test(item) && found.add(item), null);
+        return found.stream().findFirst();
+    }
+
+    public static <T> ResultPage<T> decodePage(InputStream body, ItemReader<T> itemReader,
+                                               int page, int pageSize) throws IOException {
+        List<T> items = new ArrayList<>();
+        PageMeta meta = new PageMeta(page, pageSize);
+        readItems(body, itemReader, item -> {
+            items.add(item);
+            return false;
+        }, meta);
+        return new ResultPage<>(items, meta.page, meta.pageSize, meta.totalElements, meta.totalPages);
+    }
+
+    /**
+     * Passes the non-null items to {@code visitor} until it returns true or the page ends.
+     * Paging metadata is read into {@code meta} when given, otherwise skipped.
+     **/
+    private static <T> void readItems(InputStream body, ItemReader<T> itemReader, Predicate<T> visitor,
+                                      PageMeta meta) throws IOException {
+        if (body == null) {
+            return;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (ITEMS_FIELD.equals(field) && value == JsonToken.START_ARRAY) {
+                    if (readArray(parser, itemReader, visitor)) {
+                        return;
+                    }
+                } else if (META_FIELD.equals(field) && value == JsonToken.START_OBJECT && meta != null) {
+                    meta.read(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static <T> boolean readArray(JsonParser parser, ItemReader<T> itemReader,
+                                         Predicate<T> visitor) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            if (visitor.test(itemReader.read(parser))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static String text(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+
+    public static Long longValue(JsonParser parser) throws IOException {
+        return parser.currentToken().isNumeric() ? Long.valueOf(parser.getValueAsLong()) : null;
+    }
+
+    public static Double doubleValue(JsonParser parser) throws IOException {
+        return parser.currentToken().isNumeric() ? Double.valueOf(parser.getValueAsDouble()) : null;
+    }
+
+    public static Boolean booleanValue(JsonParser parser) throws IOException {
+        return parser.currentToken().isBoolean() ? Boolean.valueOf(parser.getBooleanValue()) : null;
+    }
+
+    /**
+     * Accepts ISO date-times with or without an offset (UTC assumed) and epoch seconds with optional fraction,
+     * the forms Jackson reads into {@link Instant}.
+     **/
+    public static Instant instant(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return Instant.ofEpochSecond(parser.getLongValue());
+        }
+        if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            BigDecimal seconds = parser.getDecimalValue();
+            return Instant.ofEpochSecond(seconds.longValue(),
+                    seconds.remainder(BigDecimal.ONE).movePointRight(9).longValue());
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            return null;
+        }
+        TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME
+                .parseBest(parser.getText(), OffsetDateTime::from, LocalDateTime::from);
+        return parsed instanceof OffsetDateTime offsetDateTime
+                ? offsetDateTime.toInstant()
+                : ((LocalDateTime) parsed).toInstant(ZoneOffset.UTC);
+    }
+
+    private static class PageMeta {
+        private int page;
+        private int pageSize;
+        private long totalElements = -1;
+        private int totalPages = -1;
+
+        PageMeta(int page, int pageSize) {
+            this.page = page;
+            this.pageSize = pageSize;
+        }
+
+        void read(JsonParser parser) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!value.isNumeric()) {
+                    parser.skipChildren();
+                    continue;
+                }
+                switch (field) {
+                    case "page" -> page = parser.getIntValue();
+                    case "limit", "size", "pageSize" -> pageSize = parser.getIntValue();
+                    case "elements", "totalElements" -> totalElements = parser.getLongValue();
+                    case "totalPages" -> totalPages = parser.getIntValue();
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+}
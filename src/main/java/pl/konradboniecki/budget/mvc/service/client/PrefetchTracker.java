@@ -0,0 +1,87 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * PrefetchTracker measures whether prefetching pays off. Entries fetched from the downstream inside {@link #record}
+ * are remembered as prefetched, while entries the caches already held are not, as prefetching them warmed nothing.
+ * One read by a request within {@code window} counts the entry as used, otherwise it counts as wasted
+ * when the window ends.
+ **/
+
+@Component
+public class PrefetchTracker {
+
+    private static final String METRIC = "budget.prefetch.entries";
+
+    private final ThreadLocal<Set<String>> recordedKeys = new ThreadLocal<>();
+    private final Cache<String, Boolean> prefetchedKeys;
+    private final Counter prefetched;
+    private final Counter used;
+    private final Counter wasted;
+
+    @Autowired
+    public PrefetchTracker(MeterRegistry meterRegistry,
+                           @Value("${budget.prefetch.window:5m}") Duration window) {
+        this.prefetched = meterRegistry.counter(METRIC, "outcome", "prefetched");
+        this.used = meterRegistry.counter(METRIC, "outcome", "used");
+        this.wasted = meterRegistry.counter(METRIC, "outcome", "wasted");
+        this.prefetchedKeys = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .scheduler(Scheduler.systemScheduler())
+                .executor(Runnable::run)
+                .removalListener((String key, Boolean value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        wasted.increment();
+                    }
+                })
+                .build();
+    }
+
+    public void record(Runnable prefetch) {
+        Set<String> keys = new HashSet<>();
+        recordedKeys.set(keys);
+        try {
+            prefetch.run();
+        } finally {
+            recordedKeys.remove();
+            keys.forEach(key -> prefetchedKeys.put(key, Boolean.TRUE));
+            prefetched.increment(keys.size());
+        }
+    }
+
+    /**
+     * Called for every downstream fetch behind a cache, remembers it while recording.
+     **/
+    public void fetched(String key) {
+        Set<String> keys = recordedKeys.get();
+        if (keys != null) {
+            keys.add(key);
+        }
+    }
+
+    /**
+     * Called for every lookup made in a request, counts the first read of a prefetched entry.
+     **/
+    public void read(String key) {
+        if (prefetchedKeys.asMap().remove(key) != null) {
+            used.increment();
+        }
+    }
+
+    void cleanUp() {
+        prefetchedKeys.cleanUp();
+    }
+}
@@ -0,0 +1,57 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ReactiveBridge lets the blocking client adapters wait for reactive clients
+ * while keeping the RestTemplate exception contract (HttpClientErrorException / HttpServerErrorException).
+ **/
+
+public final class ReactiveBridge {
+
+    private ReactiveBridge() {
+    }
+
+    public static <T> T block(Mono<T> mono) {
+        try {
+            return mono.block();
+        } catch (WebClientResponseException e) {
+            throw translate(e);
+        }
+    }
+
+    public static <T> Optional<T> blockOptional(Mono<T> mono) {
+        try {
+            return mono.blockOptional();
+        } catch (WebClientResponseException e) {
+            throw translate(e);
+        }
+    }
+
+    public static <T> List<T> blockList(Flux<T> flux) {
+        return block(flux.collectList());
+    }
+
+    public static boolean isClientError(Throwable throwable) {
+        return throwable instanceof WebClientResponseException
+                && ((WebClientResponseException) throwable).getStatusCode().is4xxClientError();
+    }
+
+    private static RuntimeException translate(WebClientResponseException e) {
+        if (e.getStatusCode().is4xxClientError()) {
+            return HttpClientErrorException.create(e.getStatusCode(), e.getStatusText(),
+                    e.getHeaders(), e.getResponseBodyAsByteArray(), null);
+        } else if (e.getStatusCode().is5xxServerError()) {
+            return HttpServerErrorException.create(e.getStatusCode(), e.getStatusText(),
+                    e.getHeaders(), e.getResponseBodyAsByteArray(), null);
+        }
+        return e;
+    }
+}
@@ -0,0 +1,170 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import pl.konradboniecki.budget.mvc.model.Family;
+import pl.konradboniecki.budget.mvc.model.Invitation;
+import pl.konradboniecki.budget.openapi.dto.model.OASInvitationPage;
+import pl.konradboniecki.chassis.exceptions.BadRequestException;
+import pl.konradboniecki.chassis.exceptions.ResourceConflictException;
+import pl.konradboniecki.chassis.exceptions.ResourceNotFoundException;
+import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class ReactiveFamilyManagementClient {
+    private static final String BASE_PATH = "/api/family-mgt/v1";
+
+    private final WebClient webClient;
+    @Setter
+    @Value("${budget.baseUrl.familyManagement}")
+    private String gatewayUrl;
+
+    @Autowired
+    public ReactiveFamilyManagementClient(WebClient downstreamWebClient) {
+        this.webClient = downstreamWebClient;
+    }
+
+    public Mono<Family> findFamilyById(String familyId) {
+        return webClient.get()
+                .uri(gatewayUrl + BASE_PATH + "/families/{familyId}", familyId)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .bodyToMono(Family.class)
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.error("Family with id: " + familyId + " not found.");
+                    return Mono.empty();
+                });
+    }
+
+    public Mono<Boolean> deleteFamilyById(String familyId) {
+        return webClient.delete()
+                .uri(gatewayUrl + BASE_PATH + "/families/{familyId}", familyId)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .toBodilessEntity()
+                .map(responseEntity -> responseEntity.getStatusCode().is2xxSuccessful())
+                .onErrorMap(ReactiveBridge::isClientError, e ->
+                        new ResourceNotFoundException("Failed to delete family with id: " + familyId, e));
+    }
+
+    public Mono<Family> saveFamily(Family family) {
+        return webClient.post()
+                .uri(gatewayUrl + BASE_PATH + "/families")
+                .contentType(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .bodyValue(family)
+                .retrieve()
+                .bodyToMono(Family.class)
+                .onErrorMap(WebClientResponseException.Conflict.class, e -> {
+                    log.error("Failed to save app with id: {}, already exists.", family.getId());
+                    return new ResourceConflictException("Conflict during family creation. Conflict.", e);
+                })
+                .onErrorMap(ReactiveBridge::isClientError, e ->
+                        new BadRequestException("Failed to create family.", e));
+    }
+
+    public Mono<Family> updateFamily(Family family) {
+        return webClient.put()
+                .uri(gatewayUrl + BASE_PATH + "/families/{familyId}", family.getId())
+                .contentType(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .bodyValue(family)
+                .retrieve()
+                .bodyToMono(Family.class)
+                .onErrorMap(WebClientResponseException.NotFound.class, e ->
+                        new ResourceNotFoundException("Family not found with id: " + family.getId(), e));
+    }
+
+    public Mono<Boolean> deleteInvitationById(String invitationId) {
+        return webClient.delete()
+                .uri(gatewayUrl + BASE_PATH + "/invitations/{invitationId}", invitationId)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .toBodilessEntity()
+                .map(responseEntity -> responseEntity.getStatusCode().is2xxSuccessful())
+                .onErrorMap(WebClientResponseException.NotFound.class, e ->
+                        new ResourceNotFoundException("Family with id: " + invitationId + " not found.", e))
+                .onErrorMap(ReactiveBridge::isClientError, e ->
+                        new BadRequestException("Failed to delete family invitation", e));
+    }
+
+    public Mono<Invitation> saveInvitation(Invitation invitation) {
+        log.info("Saving invitation with following body: {}", invitation);
+        return webClient.post()
+                .uri(gatewayUrl + BASE_PATH + "/invitations")
+                .contentType(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .bodyValue(invitation)
+                .retrieve()
+                .bodyToMono(Invitation.class);
+    }
+
+    public Flux<Invitation> findAllInvitationsByEmail(String email) {
+        return findInvitations(gatewayUrl + BASE_PATH + "/invitations?email={email}", email)
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.error("Failed to fetch all invitations for email: " + email);
+                    return Flux.empty();
+                });
+    }
+
+    public Flux<Invitation> findAllInvitationsByFamilyId(String id) {
+        return findInvitations(gatewayUrl + BASE_PATH + "/invitations?familyId={familyId}", id)
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.error("Failed to fetch all invitations to family with id: " + id, e);
+                    return Flux.empty();
+                });
+    }
+
+    public Mono<Invitation> findInvitationByEmailAndFamilyId(String email, String familyId) {
+        return findInvitations(gatewayUrl + BASE_PATH + "/invitations?email={email}&familyId={familyId}", email, familyId)
+                .next()
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.error("FamilyInvitation with email: {} and id: {} not found.", email, familyId, e);
+                    return Mono.empty();
+                });
+    }
+
+    public Mono<Invitation> findInvitationById(String id) {
+        return webClient.get()
+                .uri(gatewayUrl + BASE_PATH + "/invitations/{invitationId}", id)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .bodyToMono(Invitation.class)
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.error("FamilyInvitation with id:" + id + " not found.", e);
+                    return Mono.empty();
+                });
+    }
+
+    private Flux<Invitation> findInvitations(String uriTemplate, Object... uriVariables) {
+        return webClient.get()
+                .uri(uriTemplate, uriVariables)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .bodyToMono(OASInvitationPage.class)
+                .flatMapIterable(OASInvitationPage::getItems)
+                .filter(Objects::nonNull)
+                .map(FamilyManagementClient::toInvitation);
+    }
+}
@@ -0,0 +1,65 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import pl.konradboniecki.budget.mvc.model.Account;
+import pl.konradboniecki.budget.mvc.model.dto.InvitationToFamily;
+import pl.konradboniecki.budget.mvc.model.dto.SignUpConfirmation;
+import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class ReactiveMailServiceClient {
+    private static final String BASE_PATH = "/api/mail/v1";
+
+    private final WebClient webClient;
+    @Setter
+    @Value("${budget.baseUrl.mail}")
+    private String gatewayUrl;
+
+    @Autowired
+    public ReactiveMailServiceClient(WebClient downstreamWebClient) {
+        this.webClient = downstreamWebClient;
+    }
+
+    public Mono<Boolean> sendSignUpConfirmation(Account account, String activationCode) {
+        SignUpConfirmation signUpConfirmation = new SignUpConfirmation()
+                .setAccount(account)
+                .setActivationCode(activationCode);
+        return post(gatewayUrl + BASE_PATH + "/account-activations", signUpConfirmation);
+    }
+
+    public Mono<Boolean> sendFamilyInvitationToNewUser(InvitationToFamily invitationToFamily) {
+        return sendFamilyInvitation(invitationToFamily);
+    }
+
+    public Mono<Boolean> sendFamilyInvitationToExistingUser(InvitationToFamily invitationToFamily) {
+        return sendFamilyInvitation(invitationToFamily);
+    }
+
+    private Mono<Boolean> sendFamilyInvitation(InvitationToFamily invitationToFamily) {
+        return post(gatewayUrl + BASE_PATH + "/family-invitations", invitationToFamily);
+    }
+
+    private Mono<Boolean> post(String url, Object body) {
+        return webClient.post()
+                .uri(url)
+                .contentType(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .bodyValue(body)
+                .retrieve()
+                .toBodilessEntity()
+                .map(responseEntity -> responseEntity.getStatusCode() == HttpStatus.NO_CONTENT);
+    }
+}
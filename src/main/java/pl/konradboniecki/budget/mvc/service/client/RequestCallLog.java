@@ -0,0 +1,112 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RequestCallLog counts the downstream calls made while serving one HTTP request, per endpoint.
+ * Calls made from worker threads that carry the request attributes are counted too.
+ **/
+
+public class RequestCallLog {
+
+    static final String ATTRIBUTE = RequestCallLog.class.getName();
+
+    private final Map<String, EndpointCalls> endpoints = new ConcurrentHashMap<>();
+
+    public static Optional<RequestCallLog> current() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(
+                    (RequestCallLog) requestAttributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+        } catch (IllegalStateException requestNotActive) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Starts the call log of a request. Called once, before the first downstream call of the request;
+     * calls made in a request that was never attached are not counted.
+     **/
+    public static void attach(HttpServletRequest request) {
+        request.setAttribute(ATTRIBUTE, new RequestCallLog());
+    }
+
+    public static Optional<RequestCallLog> of(HttpServletRequest request) {
+        return Optional.ofNullable((RequestCallLog) request.getAttribute(ATTRIBUTE));
+    }
+
+    public void record(String endpoint, String downstream, long nanos) {
+        EndpointCalls calls = endpoints.computeIfAbsent(endpoint, key -> new EndpointCalls(downstream));
+        calls.count.incrementAndGet();
+        calls.nanos.add(nanos);
+    }
+
+    public Map<String, EndpointCalls> endpoints() {
+        return Collections.unmodifiableMap(endpoints);
+    }
+
+    public int totalCalls() {
+        return endpoints.values().stream().mapToInt(EndpointCalls::getCount).sum();
+    }
+
+    public long totalNanos() {
+        return endpoints.values().stream().mapToLong(EndpointCalls::getNanos).sum();
+    }
+
+    /**
+     * Value of a {@code Server-Timing} header: the time spent in each downstream service and in all of them.
+     * Calls made in parallel are summed, so the total may exceed the duration of the request.
+     **/
+    public String serverTiming() {
+        Map<String, long[]> perDownstream = new TreeMap<>();
+        endpoints.values().forEach(calls -> {
+            long[] totals = perDownstream.computeIfAbsent(calls.downstream, key -> new long[2]);
+            totals[0] += calls.getCount();
+            totals[1] += calls.getNanos();
+        });
+        StringBuilder header = new StringBuilder(timing("downstream", totalCalls(), totalNanos()));
+        perDownstream.forEach((downstream, totals) ->
+                header.append(", ").append(timing(downstream, totals[0], totals[1])));
+        return header.toString();
+    }
+
+    private static String timing(String name, long calls, long nanos) {
+        return String.format(Locale.ROOT, "%s;desc=\"%d calls\";dur=%.1f", name, calls, nanos / 1_000_000d);
+    }
+
+    public static class EndpointCalls {
+        private final String downstream;
+        private final AtomicInteger count = new AtomicInteger();
+        private final LongAdder nanos = new LongAdder();
+
+        EndpointCalls(String downstream) {
+            this.downstream = downstream;
+        }
+
+        public String getDownstream() {
+            return downstream;
+        }
+
+        public int getCount() {
+            return count.get();
+        }
+
+        public long getNanos() {
+            return nanos.sum();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * RequestDeadline is the point in time by which the current HTTP request has to be answered.
+ * It is set once at the controller boundary and shared by every downstream call made for the request,
+ * also from worker threads that carry the request attributes.
+ **/
+
+public final class RequestDeadline {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+    static final String ATTRIBUTE = RequestDeadline.class.getName();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(HttpServletRequest request, Duration timeout) {
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        Object existing = request.getAttribute(ATTRIBUTE);
+        if (existing == null || (long) existing - deadlineNanos > 0) {
+            request.setAttribute(ATTRIBUTE, deadlineNanos);
+        }
+    }
+
+    /**
+     * Time left until the deadline, negative when already exceeded, empty outside of a request with a deadline.
+     * A request that has already completed has no time left.
+     **/
+    public static Optional<Duration> remaining() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return Optional.empty();
+        }
+        Object deadlineNanos;
+        try {
+            deadlineNanos = requestAttributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        } catch (IllegalStateException requestNotActive) {
+            return Optional.of(Duration.ZERO);
+        }
+        if (deadlineNanos == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofNanos((long) deadlineNanos - System.nanoTime()));
+    }
+
+    public static boolean isExceeded() {
+        return remaining().map(left -> left.isNegative() || left.isZero()).orElse(false);
+    }
+}
@@ -0,0 +1,15 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Thrown instead of calling a downstream service when the request has no time left to wait for the answer.
+ **/
+
+public class RequestDeadlineExceededException extends ResponseStatusException {
+
+    public RequestDeadlineExceededException(String reason, Throwable cause) {
+        super(HttpStatus.GATEWAY_TIMEOUT, reason, cause);
+    }
+}
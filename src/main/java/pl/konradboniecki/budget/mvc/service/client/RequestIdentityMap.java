@@ -0,0 +1,161 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * RequestIdentityMap deduplicates identical downstream reads made while serving one HTTP request.
+ * Entries live in the request attributes and are dropped by writes made in the same request.
+ * Reads behind a cache may use {@link #shared} in their cache loader, so identical misses of concurrent requests
+ * share one downstream call. The caches copy what they load, so requests never get the same objects.
+ **/
+
+@Slf4j
+@Component
+public class RequestIdentityMap {
+
+    static final String ATTRIBUTE = RequestIdentityMap.class.getName();
+    public static final String AVOIDED_CALLS_ATTRIBUTE = ATTRIBUTE + ".avoidedCalls";
+
+    private final DistributionSummary avoidedCallsPerRequest;
+    private final SingleFlight singleFlight;
+    private final PrefetchTracker prefetchTracker;
+
+    @Autowired
+    public RequestIdentityMap(MeterRegistry meterRegistry, SingleFlight singleFlight,
+                              PrefetchTracker prefetchTracker) {
+        this.singleFlight = singleFlight;
+        this.prefetchTracker = prefetchTracker;
+        this.avoidedCallsPerRequest = DistributionSummary.builder("budget.client.request.deduplicated")
+                .description("Downstream reads per request served from the request identity map")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T lookup(String key, Supplier<T> fetch) {
+        Entries entries = currentEntries();
+        if (entries == null) {
+            return fetch.get();
+        }
+        prefetchTracker.read(key);
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> existing = entries.values.putIfAbsent(key, pending);
+        if (existing != null) {
+            entries.avoidedCalls.incrementAndGet();
+            return (T) join(existing);
+        }
+        try {
+            T value = fetch.get();
+            pending.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            entries.values.remove(key, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Lets concurrent identical downstream reads share one call. Meant for cache loaders only,
+     * because every caller gets the very same result.
+     **/
+    public <T> T shared(String key, Supplier<T> fetch) {
+        return singleFlight.execute(key, () -> {
+            prefetchTracker.fetched(key);
+            return fetch.get();
+        });
+    }
+
+    /**
+     * Lets concurrent identical downstream reads share one call when no cache stands behind them.
+     * Every caller gets its own copy of the shared result, so callers may modify what they get.
+     **/
+    public <T> T shared(String key, Supplier<T> fetch, UnaryOperator<T> copy) {
+        return copy.apply(shared(key, fetch));
+    }
+
+    public <T> T invalidateAfter(Supplier<T> write, String... keyPrefixes) {
+        try {
+            return write.get();
+        } finally {
+            for (String keyPrefix : keyPrefixes) {
+                invalidate(keyPrefix);
+            }
+        }
+    }
+
+    public void invalidate(String keyPrefix) {
+        singleFlight.forget(keyPrefix);
+        Entries entries = currentEntries();
+        if (entries != null) {
+            entries.values.keySet().removeIf(key -> key.startsWith(keyPrefix));
+        }
+    }
+
+    public int avoidedCalls() {
+        Entries entries = currentEntries();
+        return entries == null ? 0 : entries.avoidedCalls.get();
+    }
+
+    /**
+     * Starts the identity map of a request. Called once, before the first downstream call of the request;
+     * lookups made in a request that was never attached are not deduplicated.
+     **/
+    public void attach(RequestAttributes requestAttributes) {
+        Entries entries = new Entries();
+        requestAttributes.setAttribute(ATTRIBUTE, entries, RequestAttributes.SCOPE_REQUEST);
+        requestAttributes.registerDestructionCallback(ATTRIBUTE,
+                recordAvoidedCalls(requestAttributes, entries), RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private Entries currentEntries() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return null;
+        }
+        try {
+            return (Entries) requestAttributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        } catch (IllegalStateException requestNotActive) {
+            return null;
+        }
+    }
+
+    private Runnable recordAvoidedCalls(RequestAttributes requestAttributes, Entries entries) {
+        return () -> {
+            int avoided = entries.avoidedCalls.get();
+            avoidedCallsPerRequest.record(avoided);
+            if (avoided > 0) {
+                log.debug("Avoided {} duplicate downstream calls in request.", avoided);
+            }
+        };
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static class Entries {
+        private final Map<String, CompletableFuture<Object>> values = new ConcurrentHashMap<>();
+        private final AtomicInteger avoidedCalls = new AtomicInteger();
+    }
+}
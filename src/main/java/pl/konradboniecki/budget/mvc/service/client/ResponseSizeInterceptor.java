@@ -0,0 +1,147 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ResponseSizeInterceptor records how many bytes of each downstream response were read.
+ * The body is counted while it is consumed, so responses without Content-Length are measured too.
+ * The same counting is applied to WebClient responses when it is used as a filter.
+ **/
+
+public class ResponseSizeInterceptor implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+    private final Map<Downstream, DistributionSummary> sizes = new EnumMap<>(Downstream.class);
+
+    public ResponseSizeInterceptor(MeterRegistry meterRegistry) {
+        for (Downstream downstream : Downstream.values()) {
+            sizes.put(downstream, DistributionSummary.builder("budget.client.response.size")
+                    .description("Size of downstream response bodies")
+                    .baseUnit("bytes")
+                    .tag("downstream", downstream.getServiceName())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        ClientHttpResponse response = execution.execute(request, body);
+        return Downstream.of(request.getURI())
+                .<ClientHttpResponse>map(downstream -> new CountingResponse(response, sizes.get(downstream)))
+                .orElse(response);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        Optional<Downstream> downstream = Downstream.of(request.url());
+        if (downstream.isEmpty()) {
+            return next.exchange(request);
+        }
+        DistributionSummary size = sizes.get(downstream.get());
+        return next.exchange(request).map(response -> response.mutate()
+                .body(body -> {
+                    AtomicLong count = new AtomicLong();
+                    return body.doOnNext(buffer -> count.addAndGet(buffer.readableByteCount()))
+                            .doFinally(signal -> size.record(count.get()));
+                })
+                .build());
+    }
+
+    private static class CountingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final DistributionSummary size;
+        private CountingInputStream body;
+        private boolean recorded;
+
+        CountingResponse(ClientHttpResponse delegate, DistributionSummary size) {
+            this.delegate = delegate;
+            this.size = size;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (!recorded) {
+                recorded = true;
+                size.record(body == null ? 0 : body.count);
+            }
+            delegate.close();
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
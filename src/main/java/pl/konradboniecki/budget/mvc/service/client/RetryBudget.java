@@ -0,0 +1,43 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+/**
+ * RetryBudget keeps retries to a percentage of all retryable requests, so an outage of a downstream service
+ * does not multiply the load on it by the number of attempts of every instance.
+ * A few retries per second are always allowed, so a quiet instance can still ride out a single failure.
+ **/
+
+public class RetryBudget {
+
+    private final double tokensPerRequest;
+    private final double minRetriesPerSecond;
+    private final double maxTokens;
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    public RetryBudget(double budgetPercent, double minRetriesPerSecond, double maxTokens) {
+        this.tokensPerRequest = budgetPercent / 100;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.maxTokens = maxTokens;
+    }
+
+    public synchronized void onRequest() {
+        refill();
+        tokens = Math.min(maxTokens, tokens + tokensPerRequest);
+    }
+
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / 1_000_000_000d;
+        lastRefillNanos = now;
+        tokens = Math.min(maxTokens, tokens + elapsedSeconds * minRetriesPerSecond);
+    }
+}
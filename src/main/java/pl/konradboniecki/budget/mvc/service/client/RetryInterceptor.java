@@ -0,0 +1,146 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * RetryInterceptor repeats downstream calls that failed with a transient 5xx response or an I/O error.
+ * Only idempotent calls are repeated: GETs and DELETEs, and POSTs carrying an {@value #IDEMPOTENCY_KEY_HEADER}.
+ * The key is sent only by BudgetManagementClient.saveBudget and only with {@code budget.retry.idempotency-key.enabled}.
+ * The number of attempts can be changed per endpoint, e.g. {@code GET /api/budget-mgt/v1/budgets/{id}/jars}.
+ * Attempts are spaced by exponential backoff with full jitter, limited by the retry budget and the request deadline.
+ * Every attempt is a fresh request passing through the attempt interceptors below, e.g. hedging.
+ **/
+
+@Slf4j
+public class RetryInterceptor implements AttemptInterceptor {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final RetryBudget budget;
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final Set<HttpMethod> idempotentMethods;
+    private final Set<Integer> retryableStatuses;
+    private final Map<String, Integer> maxAttemptsPerEndpoint;
+    private final MeterRegistry meterRegistry;
+
+    public RetryInterceptor(RetryBudget budget, int maxAttempts, Duration baseDelay, Duration maxDelay,
+                            Set<HttpMethod> idempotentMethods, Set<Integer> retryableStatuses,
+                            Map<String, Integer> maxAttemptsPerEndpoint, MeterRegistry meterRegistry) {
+        this.budget = budget;
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.idempotentMethods = idempotentMethods;
+        this.retryableStatuses = retryableStatuses;
+        this.maxAttemptsPerEndpoint = maxAttemptsPerEndpoint;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        int attempts = maxAttemptsOf(request);
+        if (attempts <= 1) {
+            return execution.execute(request, body);
+        }
+        budget.onRequest();
+        for (int attempt = 1; ; attempt++) {
+            ClientHttpResponse response = null;
+            IOException failure = null;
+            try {
+                response = execution.execute(request, body);
+                if (attempt == attempts || !retryableStatuses.contains(response.getStatusCode().value())) {
+                    return response;
+                }
+            } catch (IOException e) {
+                if (attempt == attempts) {
+                    throw e;
+                }
+                failure = e;
+            }
+
+            String reason = failure == null
+                    ? String.valueOf(response.getStatusCode().value())
+                    : failure.getClass().getSimpleName();
+            Duration backoff = backoff(attempt);
+            if (!mayRetry(request, backoff)) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+            if (response != null) {
+                response.close();
+            }
+            log.debug("Retrying {} {} after {} in {} ms.",
+                    request.getMethod(), request.getURI().getPath(), reason, backoff.toMillis());
+            count("budget.client.retries", "Repeated attempts of downstream calls", request)
+                    .tag("reason", reason)
+                    .register(meterRegistry)
+                    .increment();
+            sleep(backoff);
+        }
+    }
+
+    private int maxAttemptsOf(HttpRequest request) {
+        String endpoint = EndpointLatencies.endpointOf(request.getMethod().name(), request.getURI());
+        Integer endpointAttempts = maxAttemptsPerEndpoint.get(endpoint);
+        if (endpointAttempts != null) {
+            return endpointAttempts;
+        }
+        boolean idempotent = idempotentMethods.contains(request.getMethod())
+                || request.getHeaders().containsKey(IDEMPOTENCY_KEY_HEADER);
+        return idempotent ? maxAttempts : 1;
+    }
+
+    private boolean mayRetry(HttpRequest request, Duration backoff) {
+        boolean deadlineAllows = RequestDeadline.remaining()
+                .map(remaining -> remaining.compareTo(backoff) > 0)
+                .orElse(true);
+        if (!deadlineAllows) {
+            return false;
+        }
+        if (!budget.tryAcquire()) {
+            count("budget.client.retry.budget-exhausted", "Retries not made because the retry budget was spent", request)
+                    .register(meterRegistry)
+                    .increment();
+            return false;
+        }
+        return true;
+    }
+
+    private Duration backoff(int attempt) {
+        long ceiling = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(attempt - 1, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    private static Counter.Builder count(String name, String description, HttpRequest request) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("downstream", Downstream.of(request.getURI()).map(Downstream::getServiceName).orElse("other"));
+    }
+
+    private static void sleep(Duration backoff) throws InterruptedIOException {
+        try {
+            Thread.sleep(backoff.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry.");
+        }
+    }
+}
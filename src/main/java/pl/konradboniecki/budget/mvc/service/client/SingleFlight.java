@@ -0,0 +1,97 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * SingleFlight lets concurrent identical reads, also from different HTTP requests, share one downstream call.
+ * The first caller of a key makes the call; callers arriving while it is in flight wait for its result
+ * (or its exception) for at most their own request deadline. Nothing is kept once the call completes.
+ * Followers receive the very same result object, so it is used only below the caches, which copy the results
+ * they load before handing them out (see {@link RequestIdentityMap#shared}).
+ * Downstream calls are authorized with the service credentials, never with the user's, so sharing
+ * a result between users does not widen what they can see.
+ **/
+
+@Component
+public class SingleFlight {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> call) {
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            meterRegistry.counter("budget.client.coalesced", "group", groupOf(key)).increment();
+            return (T) await(existing);
+        }
+        try {
+            T value = call.get();
+            inFlight.remove(key, pending);
+            pending.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Detaches the calls in flight under the prefix, so reads made after a write do not join a read started before it.
+     **/
+    public void forget(String keyPrefix) {
+        inFlight.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        Optional<Duration> remaining = RequestDeadline.remaining();
+        try {
+            if (remaining.isEmpty()) {
+                return future.join();
+            }
+            return future.get(Math.max(remaining.get().toNanos(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new RequestDeadlineExceededException("Request deadline exceeded while waiting for a shared call.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (CompletionException | ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private static String groupOf(String key) {
+        int separator = key.indexOf(':');
+        return separator < 0 ? key : key.substring(0, separator);
+    }
+}
@@ -0,0 +1,87 @@
+package pl.konradboniecki.budget.mvc.service.client.accountmanagement;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.konradboniecki.budget.mvc.model.Account;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * AccountCache keeps recently fetched accounts under both id and email.
+ * Only enabled accounts are cached, so a freshly activated account is never served from a stale entry.
+ **/
+
+@Component
+public class AccountCache {
+
+    private final Cache<String, Account> accountsById;
+    private final Cache<String, Account> accountsByEmail;
+
+    @Autowired
+    public AccountCache(MeterRegistry meterRegistry,
+                        @Value("${budget.cache.account.maximum-size:10000}") long maximumSize,
+                        @Value("${budget.cache.account.ttl:5m}") Duration ttl) {
+        this.accountsById = newCache(maximumSize, ttl);
+        this.accountsByEmail = newCache(maximumSize, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, accountsById, "accounts.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, accountsByEmail, "accounts.byEmail");
+    }
+
+    public Optional<Account> findById(String id, Supplier<Optional<Account>> fetch) {
+        return find(accountsById, id, fetch);
+    }
+
+    public Optional<Account> findByEmail(String email, Supplier<Optional<Account>> fetch) {
+        return find(accountsByEmail, email.toLowerCase(), fetch);
+    }
+
+    public void put(Account account) {
+        if (account.getId() == null || account.getEmail() == null || !account.isEnabled()) {
+            return;
+        }
+        accountsById.put(account.getId(), account);
+        accountsByEmail.put(account.getEmail(), account);
+    }
+
+    public void evict(String accountId) {
+        Account cached = accountsById.getIfPresent(accountId);
+        accountsById.invalidate(accountId);
+        if (cached != null) {
+            accountsByEmail.invalidate(cached.getEmail());
+        }
+        accountsByEmail.asMap().values().removeIf(account -> accountId.equals(account.getId()));
+    }
+
+    public void evictByEmail(String email) {
+        Account cached = accountsByEmail.getIfPresent(email.toLowerCase());
+        accountsByEmail.invalidate(email.toLowerCase());
+        if (cached != null) {
+            accountsById.invalidate(cached.getId());
+        }
+    }
+
+    private Optional<Account> find(Cache<String, Account> cache, String key, Supplier<Optional<Account>> fetch) {
+        Account cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Account> fetched = fetch.get();
+        fetched.ifPresent(this::put);
+        return fetched;
+    }
+
+    private static Cache<String, Account> newCache(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
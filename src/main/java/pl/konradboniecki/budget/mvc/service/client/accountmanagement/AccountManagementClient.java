@@ -10,6 +10,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import pl.konradboniecki.budget.mvc.model.Account;
+import pl.konradboniecki.budget.mvc.service.client.NegativeLookupCache;
+import pl.konradboniecki.budget.mvc.service.client.NotFoundAsEmpty;
+import pl.konradboniecki.budget.mvc.service.client.PagedItemsDecoder;
+import pl.konradboniecki.budget.mvc.service.client.RequestIdentityMap;
 import pl.konradboniecki.chassis.exceptions.ResourceConflictException;
 import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
 
@@ -22,52 +26,94 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
 @Service
 public class AccountManagementClient {
     private static final String BASE_PATH = "/api/account-mgt/v1";
+    private static final String ACCOUNT_KEYS = "account:";
+    private static final String ACCOUNT_BY_ID_KEY = ACCOUNT_KEYS + "id:";
+    private static final String ACCOUNT_BY_EMAIL_KEY = ACCOUNT_KEYS + "email:";
 
     private final RestTemplate restTemplate;
+    private final RestTemplate lookupTemplate;
+    private final RequestIdentityMap requestIdentityMap;
+    private final AccountCache accountCache;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+    private final NegativeLookupCache negativeLookupCache;
     @Setter
     @Value("${budget.baseUrl.accountManagement}")
     private String gatewayUrl;
 
     @Autowired
-    public AccountManagementClient(RestTemplate restTemplate) {
+    public AccountManagementClient(RestTemplate restTemplate, RequestIdentityMap requestIdentityMap,
+                                   AccountCache accountCache, VerifiedCredentialCache verifiedCredentialCache,
+                                   NegativeLookupCache negativeLookupCache) {
         this.restTemplate = restTemplate;
+        this.lookupTemplate = NotFoundAsEmpty.tolerantCopyOf(restTemplate);
+        this.requestIdentityMap = requestIdentityMap;
+        this.accountCache = accountCache;
+        this.verifiedCredentialCache = verifiedCredentialCache;
+        this.negativeLookupCache = negativeLookupCache;
     }
 
     public Optional<Account> findAccountById(String id) {
+        return requestIdentityMap.lookup(ACCOUNT_BY_ID_KEY + id,
+                () -> accountCache.findById(id, () -> doFindAccountById(id)));
+    }
+
+    protected Optional<Account> doFindAccountById(String id) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
-        HttpEntity<?> httpEntity = new HttpEntity<>(headers);
         try {
-            ResponseEntity<Account> responseEntity = restTemplate.exchange(
+            Optional<Account> account = lookupTemplate.execute(
                     gatewayUrl + BASE_PATH + "/accounts/" + id + "?findBy=id",
                     HttpMethod.GET,
-                    httpEntity, Account.class);
-            return Optional.of(responseEntity.getBody());
-        } catch (HttpClientErrorException | NullPointerException e) {
-            log.error("Account with id: " + id + " not found.", e);
+                    PagedItemsDecoder.withHeaders(headers),
+                    NotFoundAsEmpty.bodyOf(Account.class, lookupTemplate));
+            if (account.isEmpty()) {
+                log.info("Account with id: {} not found.", id);
+            }
+            return account;
+        } catch (HttpClientErrorException e) {
+            log.error("Failed to fetch account with id: {}, status: {}.", id, e.getStatusCode());
             return Optional.empty();
         }
     }
 
     public Optional<Account> findAccountByEmail(String email) {
+        return requestIdentityMap.lookup(ACCOUNT_BY_EMAIL_KEY + email,
+                () -> negativeLookupCache.find(NegativeLookupCache.ACCOUNTS_BY_EMAIL, email.toLowerCase(),
+                        () -> accountCache.findByEmail(email, () -> doFindAccountByEmail(email))));
+    }
+
+    protected Optional<Account> doFindAccountByEmail(String email) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
-        HttpEntity<?> httpEntity = new HttpEntity<>(headers);
         try {
-            ResponseEntity<Account> responseEntity = restTemplate.exchange(
+            Optional<Account> account = lookupTemplate.execute(
                     gatewayUrl + BASE_PATH + "/accounts/" + email + "?findBy=email",
                     HttpMethod.GET,
-                    httpEntity, Account.class);
-            return Optional.of(responseEntity.getBody());
-        } catch (HttpClientErrorException | NullPointerException e) {
-            log.error("Account with email: " + email + " not found.", e);
+                    PagedItemsDecoder.withHeaders(headers),
+                    NotFoundAsEmpty.bodyOf(Account.class, lookupTemplate));
+            if (account.isEmpty()) {
+                log.info("Account with email: {} not found.", email);
+            }
+            return account;
+        } catch (HttpClientErrorException e) {
+            log.error("Failed to fetch account with email: {}, status: {}.", email, e.getStatusCode());
             return Optional.empty();
         }
     }
 
     public Account saveAccount(Account accountToSave) throws ResourceConflictException {
+        try {
+            return requestIdentityMap.invalidateAfter(() -> doSaveAccount(accountToSave), ACCOUNT_KEYS);
+        } finally {
+            negativeLookupCache.invalidate(NegativeLookupCache.ACCOUNTS_BY_EMAIL, accountToSave.getEmail().toLowerCase());
+            accountCache.evictByEmail(accountToSave.getEmail());
+            verifiedCredentialCache.evictByEmail(accountToSave.getEmail());
+        }
+    }
+
+    protected Account doSaveAccount(Account accountToSave) throws ResourceConflictException {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(APPLICATION_JSON);
         headers.setAccept(singletonList(APPLICATION_JSON));
@@ -86,6 +132,15 @@ public class AccountManagementClient {
     }
 
     public String createActivationCodeForAccount(String accountId) {
+        try {
+            return requestIdentityMap.invalidateAfter(() -> doCreateActivationCodeForAccount(accountId), ACCOUNT_KEYS);
+        } finally {
+            accountCache.evict(accountId);
+            verifiedCredentialCache.evict(accountId);
+        }
+    }
+
+    protected String doCreateActivationCodeForAccount(String accountId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(APPLICATION_JSON);
         headers.setAccept(singletonList(APPLICATION_JSON));
@@ -129,6 +184,15 @@ public class AccountManagementClient {
     }
 
     public Boolean setFamilyIdInAccountWithId(String familyId, String accountId) {
+        try {
+            return requestIdentityMap.invalidateAfter(() -> doSetFamilyIdInAccountWithId(familyId, accountId), ACCOUNT_KEYS);
+        } finally {
+            accountCache.evict(accountId);
+            verifiedCredentialCache.evict(accountId);
+        }
+    }
+
+    protected Boolean doSetFamilyIdInAccountWithId(String familyId, String accountId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
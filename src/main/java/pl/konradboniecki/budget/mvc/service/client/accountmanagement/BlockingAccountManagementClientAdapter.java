@@ -0,0 +1,67 @@
+package pl.konradboniecki.budget.mvc.service.client.accountmanagement;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import pl.konradboniecki.budget.mvc.model.Account;
+import pl.konradboniecki.budget.mvc.service.client.NegativeLookupCache;
+import pl.konradboniecki.budget.mvc.service.client.RequestIdentityMap;
+
+import java.util.Optional;
+
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.block;
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.blockOptional;
+
+/**
+ * Keeps the blocking AccountManagementClient API for callers while the calls go through the reactive client.
+ **/
+
+@Primary
+@Service
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class BlockingAccountManagementClientAdapter extends AccountManagementClient {
+
+    private final ReactiveAccountManagementClient reactiveClient;
+
+    @Autowired
+    public BlockingAccountManagementClientAdapter(RestTemplate restTemplate, RequestIdentityMap requestIdentityMap,
+                                                  AccountCache accountCache,
+                                                  VerifiedCredentialCache verifiedCredentialCache,
+                                                  NegativeLookupCache negativeLookupCache,
+                                                  ReactiveAccountManagementClient reactiveClient) {
+        super(restTemplate, requestIdentityMap, accountCache, verifiedCredentialCache, negativeLookupCache);
+        this.reactiveClient = reactiveClient;
+    }
+
+    @Override
+    protected Optional<Account> doFindAccountById(String id) {
+        return blockOptional(reactiveClient.findAccountById(id));
+    }
+
+    @Override
+    protected Optional<Account> doFindAccountByEmail(String email) {
+        return blockOptional(reactiveClient.findAccountByEmail(email));
+    }
+
+    @Override
+    protected Account doSaveAccount(Account accountToSave) {
+        return block(reactiveClient.saveAccount(accountToSave));
+    }
+
+    @Override
+    protected String doCreateActivationCodeForAccount(String accountId) {
+        return block(reactiveClient.createActivationCodeForAccount(accountId));
+    }
+
+    @Override
+    public Boolean checkIfPasswordIsCorrect(String accountId, String hashedPassword) {
+        return block(reactiveClient.checkIfPasswordIsCorrect(accountId, hashedPassword));
+    }
+
+    @Override
+    protected Boolean doSetFamilyIdInAccountWithId(String familyId, String accountId) {
+        return block(reactiveClient.setFamilyIdInAccountWithId(familyId, accountId));
+    }
+}
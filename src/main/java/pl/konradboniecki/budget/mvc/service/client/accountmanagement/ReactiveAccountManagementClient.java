@@ -0,0 +1,121 @@
+package pl.konradboniecki.budget.mvc.service.client.accountmanagement;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import pl.konradboniecki.budget.mvc.model.Account;
+import pl.konradboniecki.budget.mvc.service.client.ReactiveBridge;
+import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class ReactiveAccountManagementClient {
+    private static final String BASE_PATH = "/api/account-mgt/v1";
+
+    private final WebClient webClient;
+    @Setter
+    @Value("${budget.baseUrl.accountManagement}")
+    private String gatewayUrl;
+
+    @Autowired
+    public ReactiveAccountManagementClient(WebClient downstreamWebClient) {
+        this.webClient = downstreamWebClient;
+    }
+
+    public Mono<Account> findAccountById(String id) {
+        return webClient.get()
+                .uri(gatewayUrl + BASE_PATH + "/accounts/{id}?findBy=id", id)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .bodyToMono(Account.class)
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.error("Account with id: " + id + " not found.");
+                    return Mono.empty();
+                });
+    }
+
+    public Mono<Account> findAccountByEmail(String email) {
+        return webClient.get()
+                .uri(gatewayUrl + BASE_PATH + "/accounts/{email}?findBy=email", email)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .bodyToMono(Account.class)
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.error("Account with email: " + email + " not found.");
+                    return Mono.empty();
+                });
+    }
+
+    public Mono<Account> saveAccount(Account accountToSave) {
+        return webClient.post()
+                .uri(gatewayUrl + BASE_PATH + "/accounts")
+                .contentType(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .bodyValue(accountToSave)
+                .retrieve()
+                .bodyToMono(Account.class)
+                .doOnError(ReactiveBridge::isClientError, e ->
+                        log.error("Failed to create account with email: " + accountToSave.getEmail()));
+    }
+
+    public Mono<String> createActivationCodeForAccount(String accountId) {
+        return webClient.post()
+                .uri(gatewayUrl + BASE_PATH + "/accounts/{accountId}/activation-codes", accountId)
+                .contentType(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> {
+                    headers.set("id", accountId);
+                    headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
+                })
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .map(body -> body.path("activationCodeValue").asText())
+                .doOnError(WebClientResponseException.NotFound.class, e ->
+                        log.error("Error during activation code creation. Account with id {} not found.", accountId));
+    }
+
+    public Mono<Boolean> checkIfPasswordIsCorrect(String accountId, String hashedPassword) {
+        return webClient.get()
+                .uri(gatewayUrl + BASE_PATH + "/accounts/{accountId}/credentials", accountId)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> {
+                    headers.set("password", hashedPassword);
+                    headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
+                })
+                .retrieve()
+                .toBodilessEntity()
+                .map(responseEntity -> responseEntity.getStatusCode() == HttpStatus.OK)
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.info("Password check failed for account with id: " + accountId);
+                    return Mono.just(false);
+                });
+    }
+
+    public Mono<Boolean> setFamilyIdInAccountWithId(String familyId, String accountId) {
+        return webClient.put()
+                .uri(gatewayUrl + BASE_PATH + "/accounts/{accountId}/families/{familyId}", accountId, familyId)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .toBodilessEntity()
+                .map(responseEntity -> responseEntity.getStatusCode() == HttpStatus.OK)
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.info("Account with id: {} or family with id: {} not found.", accountId, familyId);
+                    return Mono.just(false);
+                });
+    }
+}
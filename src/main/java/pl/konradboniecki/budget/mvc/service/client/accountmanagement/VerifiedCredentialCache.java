@@ -0,0 +1,109 @@
+package pl.konradboniecki.budget.mvc.service.client.accountmanagement;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.konradboniecki.budget.mvc.model.AccountPrincipal;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * VerifiedCredentialCache remembers recently verified (email, password hash) pairs, so repeated HTTP Basic
+ * authentication of the same client does not call account-management each time.
+ * Entries are keyed by an HMAC of the credentials with a key generated at startup, so neither the email
+ * nor the password hash is kept as a cache key.
+ * It also keeps an immutable snapshot of email to account id, replaced on every change.
+ **/
+
+@Component
+public class VerifiedCredentialCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, AccountPrincipal> principalsByCredentialDigest;
+    private final SecretKeySpec digestKey;
+    private final int maximumSize;
+    private volatile Map<String, String> accountIdsByEmail = Map.of();
+
+    @Autowired
+    public VerifiedCredentialCache(MeterRegistry meterRegistry,
+                                   @Value("${budget.cache.credential.maximum-size:10000}") int maximumSize,
+                                   @Value("${budget.cache.credential.ttl:2m}") Duration ttl) {
+        this.maximumSize = maximumSize;
+        this.principalsByCredentialDigest = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        CaffeineCacheMetrics.monitor(meterRegistry, principalsByCredentialDigest, "credentials");
+    }
+
+    public Optional<AccountPrincipal> findVerified(String email, String passwordHash) {
+        return Optional.ofNullable(principalsByCredentialDigest.getIfPresent(digest(email, passwordHash)));
+    }
+
+    public Optional<String> findAccountId(String email) {
+        return Optional.ofNullable(accountIdsByEmail.get(email));
+    }
+
+    public void verified(String email, String passwordHash, AccountPrincipal principal) {
+        principalsByCredentialDigest.put(digest(email, passwordHash), principal);
+        rememberAccountId(email, principal.getId());
+    }
+
+    public synchronized void evict(String accountId) {
+        principalsByCredentialDigest.asMap().values().removeIf(principal -> accountId.equals(principal.getId()));
+        if (accountIdsByEmail.containsValue(accountId)) {
+            Map<String, String> remaining = new HashMap<>(accountIdsByEmail);
+            remaining.values().removeIf(accountId::equals);
+            accountIdsByEmail = Map.copyOf(remaining);
+        }
+    }
+
+    public synchronized void evictByEmail(String email) {
+        String accountId = accountIdsByEmail.get(email);
+        if (accountId != null) {
+            evict(accountId);
+        }
+    }
+
+    private synchronized void rememberAccountId(String email, String accountId) {
+        if (accountId.equals(accountIdsByEmail.get(email))) {
+            return;
+        }
+        Map<String, String> updated = accountIdsByEmail.size() < maximumSize
+                ? new HashMap<>(accountIdsByEmail)
+                : new HashMap<>();
+        updated.put(email, accountId);
+        accountIdsByEmail = Map.copyOf(updated);
+    }
+
+    private String digest(String email, String passwordHash) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(digestKey);
+            mac.update(email.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(passwordHash.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to compute credential digest.", e);
+        }
+    }
+}
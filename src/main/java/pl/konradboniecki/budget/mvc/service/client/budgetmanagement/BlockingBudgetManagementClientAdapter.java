@@ -0,0 +1,43 @@
+package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import pl.konradboniecki.budget.mvc.model.Budget;
+import pl.konradboniecki.budget.mvc.service.client.RequestIdentityMap;
+
+import java.util.Optional;
+
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.block;
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.blockOptional;
+
+/**
+ * Keeps the blocking BudgetManagementClient API for callers while the calls go through the reactive client.
+ **/
+
+@Primary
+@Service
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class BlockingBudgetManagementClientAdapter extends BudgetManagementClient {
+
+    private final ReactiveBudgetManagementClient reactiveClient;
+
+    @Autowired
+    public BlockingBudgetManagementClientAdapter(RestTemplate restTemplate, RequestIdentityMap requestIdentityMap,
+                                                 ReactiveBudgetManagementClient reactiveClient) {
+        super(restTemplate, requestIdentityMap);
+        this.reactiveClient = reactiveClient;
+    }
+
+    @Override
+    protected Optional<Budget> doFindBudgetByFamilyId(String familyId) {
+        return blockOptional(reactiveClient.findBudgetByFamilyId(familyId));
+    }
+
+    @Override
+    protected Budget doSaveBudget(Budget budget) {
+        return block(reactiveClient.saveBudget(budget));
+    }
+}
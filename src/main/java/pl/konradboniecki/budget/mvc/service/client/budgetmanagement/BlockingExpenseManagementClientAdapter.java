@@ -0,0 +1,49 @@
+package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import pl.konradboniecki.budget.mvc.model.Expense;
+import pl.konradboniecki.budget.mvc.service.client.RequestIdentityMap;
+
+import java.util.List;
+
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.block;
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.blockList;
+
+/**
+ * Keeps the blocking ExpenseManagementClient API for callers while the calls go through the reactive client.
+ **/
+
+@Primary
+@Service
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class BlockingExpenseManagementClientAdapter extends ExpenseManagementClient {
+
+    private final ReactiveExpenseManagementClient reactiveClient;
+
+    @Autowired
+    public BlockingExpenseManagementClientAdapter(RestTemplate restTemplate, RequestIdentityMap requestIdentityMap,
+                                                  ExpenseCache expenseCache,
+                                                  ReactiveExpenseManagementClient reactiveClient) {
+        super(restTemplate, requestIdentityMap, expenseCache);
+        this.reactiveClient = reactiveClient;
+    }
+
+    @Override
+    protected List<Expense> doGetAllExpensesFromBudgetWithId(String budgetId) {
+        return blockList(reactiveClient.getAllExpensesFromBudgetWithId(budgetId));
+    }
+
+    @Override
+    protected Expense doSaveExpense(Expense ex, String budgetId) {
+        return block(reactiveClient.saveExpense(ex, budgetId));
+    }
+
+    @Override
+    protected boolean doDeleteExpenseInBudget(String expenseId, String budgetId) {
+        return block(reactiveClient.deleteExpenseInBudget(expenseId, budgetId));
+    }
+}
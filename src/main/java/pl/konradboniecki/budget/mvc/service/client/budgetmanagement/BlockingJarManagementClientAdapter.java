@@ -0,0 +1,61 @@
+package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import pl.konradboniecki.budget.mvc.model.Jar;
+import pl.konradboniecki.budget.mvc.service.client.RequestIdentityMap;
+
+import java.util.List;
+import java.util.Optional;
+
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.block;
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.blockList;
+import static pl.konradboniecki.budget.mvc.service.client.ReactiveBridge.blockOptional;
+
+/**
+ * Keeps the blocking JarManagementClient API for callers while the calls go through the reactive client.
+ **/
+
+@Primary
+@Service
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class BlockingJarManagementClientAdapter extends JarManagementClient {
+
+    private final ReactiveJarManagementClient reactiveClient;
+
+    @Autowired
+    public BlockingJarManagementClientAdapter(RestTemplate restTemplate, RequestIdentityMap requestIdentityMap,
+                                              JarListCache jarListCache,
+                                              ReactiveJarManagementClient reactiveClient) {
+        super(restTemplate, requestIdentityMap, jarListCache);
+        this.reactiveClient = reactiveClient;
+    }
+
+    @Override
+    protected Optional<Jar> doFindInBudgetById(String budgetId, String jarId) {
+        return blockOptional(reactiveClient.findInBudgetById(budgetId, jarId));
+    }
+
+    @Override
+    protected List<Jar> doGetAllJarsFromBudgetWithId(String budgetId) {
+        return blockList(reactiveClient.getAllJarsFromBudgetWithId(budgetId));
+    }
+
+    @Override
+    protected boolean doRemoveJarFromBudget(String jarId, String budgetId) {
+        return block(reactiveClient.removeJarFromBudget(jarId, budgetId));
+    }
+
+    @Override
+    protected Jar doSaveJar(Jar jar, String budgetId) {
+        return block(reactiveClient.saveJar(jar, budgetId));
+    }
+
+    @Override
+    protected Optional<Jar> doUpdateJar(Jar jar, String budgetId) {
+        return blockOptional(reactiveClient.updateJar(jar, budgetId));
+    }
+}
@@ -6,14 +6,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 import pl.konradboniecki.budget.mvc.model.Budget;
+import pl.konradboniecki.budget.mvc.service.client.NotFoundAsEmpty;
+import pl.konradboniecki.budget.mvc.service.client.PagedItemsDecoder;
+import pl.konradboniecki.budget.mvc.service.client.RequestIdentityMap;
+import pl.konradboniecki.budget.mvc.service.client.RetryInterceptor;
 import pl.konradboniecki.chassis.exceptions.InternalServerErrorException;
 import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
 
 import java.util.Optional;
+import java.util.UUID;
 
 import static java.util.Collections.singletonList;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
@@ -23,40 +27,72 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
 @Service
 public class BudgetManagementClient {
     private static final String BASE_PATH = "/api/budget-mgt/v1";
+    private static final String BUDGET_KEYS = "budget:";
+    private static final String BUDGET_BY_FAMILY_KEY = BUDGET_KEYS + "family:";
 
     @Setter
     @Value("${budget.baseUrl.budgetManagement}")
     private String gatewayUrl;
+    /**
+     * Sends an Idempotency-Key with every saved budget, which lets RetryInterceptor repeat the POST.
+     * Off until budget-management deduplicates requests by that key.
+     **/
+    @Setter
+    @Value("${budget.retry.idempotency-key.enabled:false}")
+    private boolean idempotencyKeyEnabled;
     private final RestTemplate restTemplate;
+    private final RestTemplate lookupTemplate;
+    private final RequestIdentityMap requestIdentityMap;
 
     @Autowired
-    public BudgetManagementClient(RestTemplate restTemplate) {
+    public BudgetManagementClient(RestTemplate restTemplate, RequestIdentityMap requestIdentityMap) {
         this.restTemplate = restTemplate;
+        this.lookupTemplate = NotFoundAsEmpty.tolerantCopyOf(restTemplate);
+        this.requestIdentityMap = requestIdentityMap;
     }
 
     public Optional<Budget> findBudgetByFamilyId(String familyId) {
+        String key = BUDGET_BY_FAMILY_KEY + familyId;
+        return requestIdentityMap.lookup(key, () -> requestIdentityMap.shared(key,
+                () -> doFindBudgetByFamilyId(familyId), budget -> budget.map(BudgetManagementClient::copy)));
+    }
+
+    private static Budget copy(Budget budget) {
+        return new Budget()
+                .setId(budget.getId())
+                .setFamilyId(budget.getFamilyId())
+                .setMaxJars(budget.getMaxJars());
+    }
+
+    protected Optional<Budget> doFindBudgetByFamilyId(String familyId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
-        HttpEntity<?> httpEntity = new HttpEntity<>(headers);
 
-        try {
-            ResponseEntity<Budget> responseEntity = restTemplate.exchange(
-                    gatewayUrl + BASE_PATH + "/budgets/" + familyId + "?idType=family",
-                    HttpMethod.GET,
-                    httpEntity, Budget.class);
-            return Optional.ofNullable(responseEntity.getBody());
-        } catch (HttpClientErrorException.NotFound e) {
-            log.error("Budget with family_id: " + familyId + " not found.");
-            return Optional.empty();
+        Optional<Budget> budget = lookupTemplate.execute(
+                gatewayUrl + BASE_PATH + "/budgets/" + familyId + "?idType=family",
+                HttpMethod.GET,
+                PagedItemsDecoder.withHeaders(headers),
+                NotFoundAsEmpty.bodyOf(Budget.class, lookupTemplate));
+        if (budget.isEmpty()) {
+            log.info("Budget with family_id: {} not found.", familyId);
         }
+        return budget;
     }
 
     public Budget saveBudget(Budget budget) {
+        return requestIdentityMap.invalidateAfter(() -> doSaveBudget(budget), BUDGET_KEYS);
+    }
+
+    protected Budget doSaveBudget(Budget budget) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(APPLICATION_JSON);
         headers.setAccept(singletonList(APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
+        if (idempotencyKeyEnabled) {
+            // one key per save, repeated attempts of this call carry the same headers
+            headers.set(RetryInterceptor.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString());
+        }
         HttpEntity<Budget> httpEntity = new HttpEntity<>(budget, headers);
         try {
             ResponseEntity<Budget> responseEntity = restTemplate.exchange(
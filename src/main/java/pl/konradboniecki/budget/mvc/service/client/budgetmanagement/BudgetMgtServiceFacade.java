@@ -4,8 +4,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import pl.konradboniecki.budget.mvc.model.Budget;
+import pl.konradboniecki.budget.mvc.model.ChunkedItems;
 import pl.konradboniecki.budget.mvc.model.Expense;
 import pl.konradboniecki.budget.mvc.model.Jar;
+import pl.konradboniecki.budget.mvc.model.ResultPage;
 
 import java.util.List;
 import java.util.Optional;
@@ -39,6 +41,10 @@ public class BudgetMgtServiceFacade {
         return jarManagementClient.findInBudgetById(budgetId, jarId);
     }
 
+    public Optional<Jar> findCurrentJarByIdInBudget(String budgetId, String jarId) {
+        return jarManagementClient.findCurrentInBudgetById(budgetId, jarId);
+    }
+
     public List<Jar> getAllJarsFromBudgetWithId(String budgetId) {
         return jarManagementClient.getAllJarsFromBudgetWithId(budgetId);
     }
@@ -59,6 +65,14 @@ public class BudgetMgtServiceFacade {
         return expenseManagementClient.getAllExpensesFromBudgetWithId(budgetId);
     }
 
+    public ResultPage<Expense> getExpensePage(String budgetId, int page, int pageSize) {
+        return expenseManagementClient.getExpensePage(budgetId, page, pageSize);
+    }
+
+    public ChunkedItems<Expense> streamExpenses(String budgetId, int chunkSize, Runnable afterChunk) {
+        return expenseManagementClient.streamExpenses(budgetId, chunkSize, afterChunk);
+    }
+
     public Expense saveExpense(Expense ex, String budgetId) {
         return expenseManagementClient.saveExpense(ex, budgetId);
     }
@@ -0,0 +1,214 @@
+package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import pl.konradboniecki.budget.mvc.model.Expense;
+import pl.konradboniecki.budget.mvc.model.ResultPage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ExpenseCache keeps the expense list of each budget. Saved expenses are appended and deleted ones removed,
+ * so the list is downloaded again only after it expired or was evicted.
+ * The cache is bounded by the estimated size of all lists in bytes, and lists longer than
+ * {@code maxExpensesPerBudget} are not cached at all.
+ * Pages are cut from the cached list when there is one; otherwise single pages are cached on their own
+ * and dropped whenever the expenses of their budget change. Lists and single pages share
+ * {@code maximum-weight}, half of it each.
+ * Every change of a budget's expenses gives the budget a new version. A load stores what it fetched only
+ * if the version did not change during the fetch, so a list fetched before a write never replaces it.
+ **/
+
+@Component
+public class ExpenseCache {
+
+    private static final int LIST_OVERHEAD_BYTES = 64;
+    private static final int EXPENSE_OVERHEAD_BYTES = 120;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private final Cache<String, List<Expense>> expensesByBudgetId;
+    private final Cache<String, ResultPage<Expense>> pagesByKey;
+    private final Cache<String, Long> versionsByBudgetId;
+    private final AtomicLong versions = new AtomicLong();
+    private final int maxExpensesPerBudget;
+
+    @Autowired
+    public ExpenseCache(MeterRegistry meterRegistry,
+                        @Value("${budget.cache.expense.maximum-weight:32MB}") DataSize maximumWeight,
+                        @Value("${budget.cache.expense.max-expenses-per-budget:5000}") int maxExpensesPerBudget,
+                        @Value("${budget.cache.expense.ttl:5m}") Duration ttl) {
+        this.maxExpensesPerBudget = maxExpensesPerBudget;
+        this.expensesByBudgetId = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes() / 2)
+                .weigher((String budgetId, List<Expense> expenses) -> estimateBytes(expenses))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, expensesByBudgetId, "expenses");
+        this.pagesByKey = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes() / 2)
+                .weigher((String key, ResultPage<Expense> page) -> estimateBytes(page.getItems()))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pagesByKey, "expensePages");
+        // a version only has to outlive the loads in flight when it changes
+        this.versionsByBudgetId = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public ResultPage<Expense> getPage(String budgetId, int page, int pageSize, PageFetch fetch) {
+        Optional<ResultPage<Expense>> slice = slice(budgetId, page, pageSize);
+        if (slice.isPresent()) {
+            return slice.get();
+        }
+        String key = pageKey(budgetId, page, pageSize);
+        ResultPage<Expense> cachedPage = pagesByKey.getIfPresent(key);
+        if (cachedPage != null) {
+            return cachedPage.withItems(copyOf(cachedPage.getItems()));
+        }
+        Long version = versionsByBudgetId.getIfPresent(budgetId);
+        ResultPage<Expense> fetchedPage = fetch.fetch(budgetId, page, pageSize);
+        ResultPage<Expense> resultPage = fetchedPage.withItems(copyOf(fetchedPage.getItems()));
+        storeIfUnchanged(budgetId, version, () -> pagesByKey.put(key, resultPage));
+        return resultPage.withItems(copyOf(resultPage.getItems()));
+    }
+
+    public List<Expense> getAll(String budgetId, Function<String, List<Expense>> fetch) {
+        List<Expense> cachedExpenses = expensesByBudgetId.getIfPresent(budgetId);
+        if (cachedExpenses != null) {
+            return copyOf(cachedExpenses);
+        }
+        Long version = versionsByBudgetId.getIfPresent(budgetId);
+        List<Expense> expenses = copyOf(fetch.apply(budgetId));
+        if (expenses.size() <= maxExpensesPerBudget) {
+            storeIfUnchanged(budgetId, version, () -> expensesByBudgetId.put(budgetId, expenses));
+        }
+        return copyOf(expenses);
+    }
+
+    /**
+     * Cuts the page out of the cached expense list, without fetching or caching anything.
+     **/
+    public Optional<ResultPage<Expense>> slice(String budgetId, int page, int pageSize) {
+        return Optional.ofNullable(expensesByBudgetId.getIfPresent(budgetId))
+                .map(expenses -> pageOf(expenses, page, pageSize));
+    }
+
+    /**
+     * Replaces the cached expense with the id of the saved one, or appends it when the list does not have it yet.
+     **/
+    public void added(String budgetId, Expense savedExpense) {
+        if (savedExpense == null || savedExpense.getId() == null) {
+            evict(budgetId);
+            return;
+        }
+        changed(budgetId, () -> expensesByBudgetId.asMap().computeIfPresent(budgetId, (id, expenses) -> {
+            List<Expense> updatedExpenses = new ArrayList<>(expenses);
+            for (int i = 0; i < updatedExpenses.size(); i++) {
+                if (savedExpense.getId().equals(updatedExpenses.get(i).getId())) {
+                    updatedExpenses.set(i, copy(savedExpense));
+                    return Collections.unmodifiableList(updatedExpenses);
+                }
+            }
+            if (updatedExpenses.size() >= maxExpensesPerBudget) {
+                return null;
+            }
+            updatedExpenses.add(copy(savedExpense));
+            return Collections.unmodifiableList(updatedExpenses);
+        }));
+    }
+
+    public void removed(String budgetId, String expenseId) {
+        changed(budgetId, () -> expensesByBudgetId.asMap().computeIfPresent(budgetId, (id, expenses) -> expenses.stream()
+                .filter(expense -> !expenseId.equals(expense.getId()))
+                .collect(Collectors.toUnmodifiableList())));
+    }
+
+    public void evict(String budgetId) {
+        changed(budgetId, () -> expensesByBudgetId.invalidate(budgetId));
+    }
+
+    private void changed(String budgetId, Runnable change) {
+        versionsByBudgetId.asMap().compute(budgetId, (id, version) -> {
+            change.run();
+            evictPages(budgetId);
+            return versions.incrementAndGet();
+        });
+    }
+
+    private void storeIfUnchanged(String budgetId, Long loadedVersion, Runnable store) {
+        versionsByBudgetId.asMap().compute(budgetId, (id, version) -> {
+            if (Objects.equals(version, loadedVersion)) {
+                store.run();
+            }
+            return version;
+        });
+    }
+
+    private void evictPages(String budgetId) {
+        String prefix = budgetId + ":";
+        pagesByKey.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static String pageKey(String budgetId, int page, int pageSize) {
+        return budgetId + ":" + page + ":" + pageSize;
+    }
+
+    static ResultPage<Expense> pageOf(List<Expense> expenses, int page, int pageSize) {
+        int from = (int) Math.min((long) page * pageSize, expenses.size());
+        int to = (int) Math.min((long) from + pageSize, expenses.size());
+        int totalPages = (expenses.size() + pageSize - 1) / pageSize;
+        return new ResultPage<>(copyOf(expenses.subList(from, to)), page, pageSize, expenses.size(), totalPages);
+    }
+
+    @FunctionalInterface
+    public interface PageFetch {
+        ResultPage<Expense> fetch(String budgetId, int page, int pageSize);
+    }
+
+    static int estimateBytes(List<Expense> expenses) {
+        long bytes = LIST_OVERHEAD_BYTES;
+        for (Expense expense : expenses) {
+            bytes += EXPENSE_OVERHEAD_BYTES
+                    + estimateBytes(expense.getId())
+                    + estimateBytes(expense.getBudgetId())
+                    + estimateBytes(expense.getComment());
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static int estimateBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + value.length();
+    }
+
+    private static List<Expense> copyOf(List<Expense> expenses) {
+        return expenses.stream()
+                .map(ExpenseCache::copy)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private static Expense copy(Expense expense) {
+        return new Expense()
+                .setId(expense.getId())
+                .setBudgetId(expense.getBudgetId())
+                .setAmount(expense.getAmount())
+                .setComment(expense.getComment())
+                .setCreated(expense.getCreated());
+    }
+}
@@ -1,5 +1,7 @@
 package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,17 +11,20 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
+import pl.konradboniecki.budget.mvc.model.ChunkedItems;
 import pl.konradboniecki.budget.mvc.model.Expense;
+import pl.konradboniecki.budget.mvc.model.ResultPage;
+import pl.konradboniecki.budget.mvc.service.client.PagedItemsDecoder;
+import pl.konradboniecki.budget.mvc.service.client.RequestIdentityMap;
 import pl.konradboniecki.budget.openapi.dto.model.OASExpense;
-import pl.konradboniecki.budget.openapi.dto.model.OASExpensePage;
 import pl.konradboniecki.chassis.exceptions.BadRequestException;
 import pl.konradboniecki.chassis.exceptions.InternalServerErrorException;
 import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.function.IntFunction;
 
 import static java.util.Collections.singletonList;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
@@ -28,50 +33,136 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
 @Service
 public class ExpenseManagementClient {
     private static final String BASE_PATH = "/api/budget-mgt/v1";
+    private static final String EXPENSE_KEYS = "expense:";
     private static final String MSG_FAILED_TO_SAVE_EXPENSE = "Failed to save expense.";
 
     @Setter
     @Value("${budget.baseUrl.budgetManagement}")
     private String gatewayUrl;
     private final RestTemplate restTemplate;
+    private final RequestIdentityMap requestIdentityMap;
+    private final ExpenseCache expenseCache;
 
     @Autowired
-    public ExpenseManagementClient(RestTemplate restTemplate) {
+    public ExpenseManagementClient(RestTemplate restTemplate, RequestIdentityMap requestIdentityMap,
+                                   ExpenseCache expenseCache) {
         this.restTemplate = restTemplate;
+        this.requestIdentityMap = requestIdentityMap;
+        this.expenseCache = expenseCache;
     }
 
     public List<Expense> getAllExpensesFromBudgetWithId(String budgetId) {
+        String key = EXPENSE_KEYS + budgetId + ":all";
+        try {
+            return requestIdentityMap.lookup(key, () -> expenseCache.getAll(budgetId,
+                    id -> requestIdentityMap.shared(key, () -> doGetAllExpensesFromBudgetWithId(id))));
+        } catch (HttpClientErrorException e) {
+            log.error("Error occurred during fetch of all expenses from budget with id: " + budgetId, e);
+            return Collections.emptyList();
+        }
+    }
+
+    protected List<Expense> doGetAllExpensesFromBudgetWithId(String budgetId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
-        HttpEntity<?> httpEntity = new HttpEntity<>(headers);
+        return restTemplate.execute(
+                gatewayUrl + BASE_PATH + "/budgets/{budgetId}/expenses",
+                HttpMethod.GET,
+                PagedItemsDecoder.withHeaders(headers),
+                PagedItemsDecoder.listOf(ExpenseManagementClient::readExpense), budgetId);
+    }
+
+    public ResultPage<Expense> getExpensePage(String budgetId, int page, int pageSize) {
+        String key = EXPENSE_KEYS + budgetId + ":page:" + page + ":" + pageSize;
         try {
-            ResponseEntity<OASExpensePage> responseEntity = restTemplate.exchange(
-                    gatewayUrl + BASE_PATH + "/budgets/{budgetId}/expenses",
-                    HttpMethod.GET,
-                    httpEntity, OASExpensePage.class, budgetId);
-            return mapToExpenseList(responseEntity.getBody().getItems());
-        } catch (HttpClientErrorException | NullPointerException e) {
-            log.error("Error occurred during fetch of all expenses from budget with id: " + budgetId, e);
-            return Collections.emptyList();
+            return requestIdentityMap.lookup(key, () -> expenseCache.getPage(budgetId, page, pageSize,
+                    (id, p, size) -> requestIdentityMap.shared(key, () -> doGetExpensePage(id, p, size))));
+        } catch (HttpClientErrorException e) {
+            return emptyPage(budgetId, page, pageSize, e);
+        }
+    }
+
+    /**
+     * Streams all expenses of the budget in chunks of {@code chunkSize}. Pages skip the request identity map
+     * and the page cache, so at most one chunk is held in memory. Only a client error on the first page
+     * reads as an empty history; a later page that fails marks the items as incomplete.
+     **/
+    public ChunkedItems<Expense> streamExpenses(String budgetId, int chunkSize, Runnable afterChunk) {
+        IntFunction<ResultPage<Expense>> pageFetch = page -> expenseCache.slice(budgetId, page, chunkSize)
+                .orElseGet(() -> doGetExpensePage(budgetId, page, chunkSize));
+        ResultPage<Expense> firstPage;
+        try {
+            firstPage = pageFetch.apply(0);
+        } catch (HttpClientErrorException e) {
+            firstPage = emptyPage(budgetId, 0, chunkSize, e);
+        }
+        return new ChunkedItems<>(firstPage, page -> {
+            try {
+                return pageFetch.apply(page);
+            } catch (RuntimeException e) {
+                log.error("Error occurred during fetch of page " + page + " of expenses from budget with id: " + budgetId, e);
+                throw e;
+            }
+        }, afterChunk);
+    }
+
+    protected ResultPage<Expense> doGetExpensePage(String budgetId, int page, int pageSize) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
+        headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
+        return restTemplate.execute(
+                gatewayUrl + BASE_PATH + "/budgets/{budgetId}/expenses?page={page}&limit={limit}",
+                HttpMethod.GET,
+                PagedItemsDecoder.withHeaders(headers),
+                PagedItemsDecoder.pageOf(ExpenseManagementClient::readExpense, page, pageSize),
+                budgetId, page, pageSize);
+    }
+
+    private static ResultPage<Expense> emptyPage(String budgetId, int page, int pageSize, HttpClientErrorException e) {
+        log.error("Error occurred during fetch of page " + page + " of expenses from budget with id: " + budgetId, e);
+        return new ResultPage<>(Collections.emptyList(), page, pageSize, 0, 0);
+    }
+
+    static Expense readExpense(JsonParser parser) throws IOException {
+        Expense expense = new Expense();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> expense.setId(PagedItemsDecoder.text(parser));
+                case "budgetId" -> expense.setBudgetId(PagedItemsDecoder.text(parser));
+                case "amount" -> expense.setAmount(PagedItemsDecoder.doubleValue(parser));
+                case "comment" -> expense.setComment(PagedItemsDecoder.text(parser));
+                case "created" -> expense.setCreated(PagedItemsDecoder.instant(parser));
+                default -> parser.skipChildren();
+            }
         }
+        return expense;
     }
 
-    private List<Expense> mapToExpenseList(List<OASExpense> oasExpenseList) {
-        return oasExpenseList.stream()
-                .filter(Objects::nonNull)
-                .map(oasExpense ->
-                        new Expense()
-                                .setAmount(oasExpense.getAmount())
-                                .setBudgetId(oasExpense.getBudgetId())
-                                .setCreated(oasExpense.getCreated())
-                                .setComment(oasExpense.getComment())
-                                .setId(oasExpense.getId())
-                )
-                .collect(Collectors.toList());
+    static Expense toExpense(OASExpense oasExpense) {
+        return new Expense()
+                .setAmount(oasExpense.getAmount())
+                .setBudgetId(oasExpense.getBudgetId())
+                .setCreated(oasExpense.getCreated())
+                .setComment(oasExpense.getComment())
+                .setId(oasExpense.getId());
     }
 
     public Expense saveExpense(Expense ex, String budgetId) {
+        try {
+            Expense savedExpense = requestIdentityMap.invalidateAfter(
+                    () -> doSaveExpense(ex, budgetId), EXPENSE_KEYS + budgetId + ":");
+            expenseCache.added(budgetId, savedExpense);
+            return savedExpense;
+        } catch (RuntimeException e) {
+            expenseCache.evict(budgetId);
+            throw e;
+        }
+    }
+
+    protected Expense doSaveExpense(Expense ex, String budgetId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(APPLICATION_JSON);
         headers.setAccept(singletonList(APPLICATION_JSON));
@@ -93,6 +184,17 @@ public class ExpenseManagementClient {
     }
 
     public boolean deleteExpenseInBudget(String expenseId, String budgetId) {
+        boolean deleted = requestIdentityMap.invalidateAfter(
+                () -> doDeleteExpenseInBudget(expenseId, budgetId), EXPENSE_KEYS + budgetId + ":");
+        if (deleted) {
+            expenseCache.removed(budgetId, expenseId);
+        } else {
+            expenseCache.evict(budgetId);
+        }
+        return deleted;
+    }
+
+    protected boolean doDeleteExpenseInBudget(String expenseId, String budgetId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
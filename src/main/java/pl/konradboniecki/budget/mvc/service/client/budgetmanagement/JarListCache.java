@@ -0,0 +1,116 @@
+package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.konradboniecki.budget.mvc.model.Jar;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * JarListCache keeps the jar list of each budget. Saved, updated and removed jars are applied to the cached list,
+ * so a write does not have to be followed by another fetch of the whole list.
+ * A list is loaded inside the cache's compute for its budget, and writes are applied with computeIfPresent
+ * on the same entry, so a write that arrives during a load waits for the loaded list and is applied to it.
+ **/
+
+@Component
+public class JarListCache {
+
+    private final Cache<String, List<Jar>> jarsByBudgetId;
+
+    @Autowired
+    public JarListCache(MeterRegistry meterRegistry,
+                        @Value("${budget.cache.jar.maximum-size:5000}") long maximumSize,
+                        @Value("${budget.cache.jar.ttl:5m}") Duration ttl) {
+        this.jarsByBudgetId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, jarsByBudgetId, "jars");
+    }
+
+    public List<Jar> getAll(String budgetId, Function<String, List<Jar>> fetch) {
+        return copyOf(jarsByBudgetId.get(budgetId, id -> copyOf(fetch.apply(id))));
+    }
+
+    public Optional<Jar> find(String budgetId, String jarId, Function<String, Optional<Jar>> fetch) {
+        List<Jar> cachedJars = jarsByBudgetId.getIfPresent(budgetId);
+        if (cachedJars == null) {
+            return fetch.apply(jarId);
+        }
+        return cachedJars.stream()
+                .filter(jar -> jarId.equals(jar.getId()))
+                .findFirst()
+                .map(JarListCache::copy);
+    }
+
+    /**
+     * Replaces the cached jar with the id of the saved one, or appends it when the list does not have it yet,
+     * e.g. when the list was loaded after the jar had been saved.
+     **/
+    public void added(String budgetId, Jar savedJar) {
+        if (savedJar == null || savedJar.getId() == null) {
+            evict(budgetId);
+            return;
+        }
+        jarsByBudgetId.asMap().computeIfPresent(budgetId, (id, jars) -> {
+            List<Jar> updatedJars = new ArrayList<>(jars);
+            for (int i = 0; i < updatedJars.size(); i++) {
+                if (savedJar.getId().equals(updatedJars.get(i).getId())) {
+                    updatedJars.set(i, copy(savedJar));
+                    return Collections.unmodifiableList(updatedJars);
+                }
+            }
+            updatedJars.add(copy(savedJar));
+            return Collections.unmodifiableList(updatedJars);
+        });
+    }
+
+    public void updated(String budgetId, Jar updatedJar) {
+        if (updatedJar == null || updatedJar.getId() == null) {
+            evict(budgetId);
+            return;
+        }
+        jarsByBudgetId.asMap().computeIfPresent(budgetId, (id, jars) -> jars.stream()
+                .map(jar -> updatedJar.getId().equals(jar.getId()) ? copy(updatedJar) : jar)
+                .collect(Collectors.toUnmodifiableList()));
+    }
+
+    public void removed(String budgetId, String jarId) {
+        jarsByBudgetId.asMap().computeIfPresent(budgetId, (id, jars) -> jars.stream()
+                .filter(jar -> !jarId.equals(jar.getId()))
+                .collect(Collectors.toUnmodifiableList()));
+    }
+
+    public void evict(String budgetId) {
+        jarsByBudgetId.invalidate(budgetId);
+    }
+
+    private static List<Jar> copyOf(List<Jar> jars) {
+        return jars.stream()
+                .map(JarListCache::copy)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    static Jar copy(Jar jar) {
+        return new Jar()
+                .setId(jar.getId())
+                .setBudgetId(jar.getBudgetId())
+                .setJarName(jar.getJarName())
+                .setCapacity(jar.getCapacity())
+                .setCurrentAmount(jar.getCurrentAmount())
+                .setStatus(jar.getStatus());
+    }
+}
@@ -1,5 +1,7 @@
 package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,15 +11,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import pl.konradboniecki.budget.mvc.model.Jar;
+import pl.konradboniecki.budget.mvc.service.client.NotFoundAsEmpty;
+import pl.konradboniecki.budget.mvc.service.client.PagedItemsDecoder;
+import pl.konradboniecki.budget.mvc.service.client.RequestIdentityMap;
 import pl.konradboniecki.budget.openapi.dto.model.OASJar;
-import pl.konradboniecki.budget.openapi.dto.model.OASJarPage;
 import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import static java.util.Collections.singletonList;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
@@ -26,67 +29,123 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
 @Service
 public class JarManagementClient {
     private static final String BASE_PATH = "/api/budget-mgt/v1";
+    private static final String JAR_KEYS = "jar:";
 
     @Setter
     @Value("${budget.baseUrl.budgetManagement}")
     private String gatewayUrl;
     private final RestTemplate restTemplate;
+    private final RestTemplate lookupTemplate;
+    private final RequestIdentityMap requestIdentityMap;
+    private final JarListCache jarListCache;
 
     @Autowired
-    public JarManagementClient(RestTemplate restTemplate) {
+    public JarManagementClient(RestTemplate restTemplate, RequestIdentityMap requestIdentityMap,
+                               JarListCache jarListCache) {
         this.restTemplate = restTemplate;
+        this.lookupTemplate = NotFoundAsEmpty.tolerantCopyOf(restTemplate);
+        this.requestIdentityMap = requestIdentityMap;
+        this.jarListCache = jarListCache;
     }
 
     public Optional<Jar> findInBudgetById(String budgetId, String jarId) {
+        String key = JAR_KEYS + budgetId + ":" + jarId;
+        return requestIdentityMap.lookup(key, () -> jarListCache.find(budgetId, jarId,
+                id -> requestIdentityMap.shared(key, () -> doFindInBudgetById(budgetId, id),
+                        jar -> jar.map(JarListCache::copy))));
+    }
+
+    /**
+     * Reads the jar straight from the downstream, past the request identity map and the jar list cache.
+     * Meant for read-modify-write paths, which must not start from a cached copy.
+     **/
+    public Optional<Jar> findCurrentInBudgetById(String budgetId, String jarId) {
+        return doFindInBudgetById(budgetId, jarId);
+    }
+
+    protected Optional<Jar> doFindInBudgetById(String budgetId, String jarId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
-        HttpEntity<Jar> httpEntity = new HttpEntity<>(headers);
         try {
-            ResponseEntity<Jar> responseEntity = restTemplate.exchange(
+            Optional<Jar> jar = lookupTemplate.execute(
                     gatewayUrl + BASE_PATH + "/budgets/{budgetId}/jars/{jarId}",
                     HttpMethod.GET,
-                    httpEntity, Jar.class, budgetId, jarId);
-            return Optional.ofNullable(responseEntity.getBody());
+                    PagedItemsDecoder.withHeaders(headers),
+                    NotFoundAsEmpty.bodyOf(Jar.class, lookupTemplate), budgetId, jarId);
+            if (jar.isEmpty()) {
+                log.info("jar with id: {} not found in budget with id: {}", jarId, budgetId);
+            }
+            return jar;
         } catch (HttpClientErrorException e) {
-            log.error("jar with id: " + jarId + " not found in budget with id: " + budgetId);
+            log.error("Failed to fetch jar with id: {} from budget with id: {}, status: {}.",
+                    jarId, budgetId, e.getStatusCode());
             return Optional.empty();
         }
     }
 
     public List<Jar> getAllJarsFromBudgetWithId(String budgetId) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
-        headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
-        HttpEntity<?> httpEntity = new HttpEntity<>(headers);
+        String key = JAR_KEYS + budgetId + ":all";
         try {
-            ResponseEntity<OASJarPage> responseEntity = restTemplate.exchange(
-                    gatewayUrl + BASE_PATH + "/budgets/{budgetId}/jars",
-                    HttpMethod.GET,
-                    httpEntity, OASJarPage.class, budgetId);
-            return mapToJarList(responseEntity.getBody().getItems());
+            return requestIdentityMap.lookup(key, () -> jarListCache.getAll(budgetId,
+                    id -> requestIdentityMap.shared(key, () -> doGetAllJarsFromBudgetWithId(id))));
         } catch (HttpClientErrorException e) {
             log.error("error occured during fetch of all jars from budget with id: " + budgetId);
             return Collections.emptyList();
         }
     }
 
-    private List<Jar> mapToJarList(List<OASJar> oasJarList) {
-        return oasJarList.stream()
-                .filter(Objects::nonNull)
-                .map(oasJar ->
-                        new Jar()
-                                .setId(oasJar.getId())
-                                .setBudgetId(oasJar.getBudgetId())
-                                .setJarName(oasJar.getJarName())
-                                .setCapacity(oasJar.getCapacity().longValue())
-                                .setStatus(oasJar.getStatus())
-                                .setCurrentAmount(oasJar.getCurrentAmount().longValue())
-                )
-                .collect(Collectors.toList());
+    protected List<Jar> doGetAllJarsFromBudgetWithId(String budgetId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
+        headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
+        return restTemplate.execute(
+                gatewayUrl + BASE_PATH + "/budgets/{budgetId}/jars",
+                HttpMethod.GET,
+                PagedItemsDecoder.withHeaders(headers),
+                PagedItemsDecoder.listOf(JarManagementClient::readJar), budgetId);
+    }
+
+    static Jar readJar(JsonParser parser) throws IOException {
+        Jar jar = new Jar();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> jar.setId(PagedItemsDecoder.text(parser));
+                case "budgetId" -> jar.setBudgetId(PagedItemsDecoder.text(parser));
+                case "jarName" -> jar.setJarName(PagedItemsDecoder.text(parser));
+                case "capacity" -> jar.setCapacity(PagedItemsDecoder.longValue(parser));
+                case "status" -> jar.setStatus(PagedItemsDecoder.text(parser));
+                case "currentAmount" -> jar.setCurrentAmount(PagedItemsDecoder.longValue(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return jar;
+    }
+
+    static Jar toJar(OASJar oasJar) {
+        return new Jar()
+                .setId(oasJar.getId())
+                .setBudgetId(oasJar.getBudgetId())
+                .setJarName(oasJar.getJarName())
+                .setCapacity(oasJar.getCapacity().longValue())
+                .setStatus(oasJar.getStatus())
+                .setCurrentAmount(oasJar.getCurrentAmount().longValue());
     }
 
     public boolean removeJarFromBudget(String jarId, String budgetId) {
+        boolean removed = requestIdentityMap.invalidateAfter(
+                () -> doRemoveJarFromBudget(jarId, budgetId), JAR_KEYS + budgetId + ":");
+        if (removed) {
+            jarListCache.removed(budgetId, jarId);
+        } else {
+            jarListCache.evict(budgetId);
+        }
+        return removed;
+    }
+
+    protected boolean doRemoveJarFromBudget(String jarId, String budgetId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials());
@@ -107,6 +166,17 @@ public class JarManagementClient {
     }
 
     public Jar saveJar(Jar jar, String budgetId) {
+        try {
+            Jar savedJar = requestIdentityMap.invalidateAfter(() -> doSaveJar(jar, budgetId), JAR_KEYS + budgetId + ":");
+            jarListCache.added(budgetId, savedJar);
+            return savedJar;
+        } catch (RuntimeException e) {
+            jarListCache.evict(budgetId);
+            throw e;
+        }
+    }
+
+    protected Jar doSaveJar(Jar jar, String budgetId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(APPLICATION_JSON);
         headers.setAccept(singletonList(APPLICATION_JSON));
@@ -126,6 +196,13 @@ public class JarManagementClient {
     }
 
     public Optional<Jar> updateJar(Jar jar, String budgetId) {
+        Optional<Jar> updatedJar = requestIdentityMap.invalidateAfter(
+                () -> doUpdateJar(jar, budgetId), JAR_KEYS + budgetId + ":");
+        jarListCache.updated(budgetId, updatedJar.orElse(null));
+        return updatedJar;
+    }
+
+    protected Optional<Jar> doUpdateJar(Jar jar, String budgetId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
         headers.setContentType(MediaType.APPLICATION_JSON);
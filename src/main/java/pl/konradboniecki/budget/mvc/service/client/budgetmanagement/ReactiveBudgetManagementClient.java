@@ -0,0 +1,62 @@
+package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import pl.konradboniecki.budget.mvc.model.Budget;
+import pl.konradboniecki.chassis.exceptions.InternalServerErrorException;
+import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class ReactiveBudgetManagementClient {
+    private static final String BASE_PATH = "/api/budget-mgt/v1";
+
+    @Setter
+    @Value("${budget.baseUrl.budgetManagement}")
+    private String gatewayUrl;
+    private final WebClient webClient;
+
+    @Autowired
+    public ReactiveBudgetManagementClient(WebClient downstreamWebClient) {
+        this.webClient = downstreamWebClient;
+    }
+
+    public Mono<Budget> findBudgetByFamilyId(String familyId) {
+        return webClient.get()
+                .uri(gatewayUrl + BASE_PATH + "/budgets/{familyId}?idType=family", familyId)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .bodyToMono(Budget.class)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    log.error("Budget with family_id: " + familyId + " not found.");
+                    return Mono.empty();
+                });
+    }
+
+    public Mono<Budget> saveBudget(Budget budget) {
+        return webClient.post()
+                .uri(gatewayUrl + BASE_PATH + "/budgets")
+                .contentType(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .bodyValue(budget)
+                .retrieve()
+                .bodyToMono(Budget.class)
+                .onErrorMap(e -> e instanceof WebClientResponseException
+                        && ((WebClientResponseException) e).getStatusCode().is5xxServerError(), e -> {
+                    log.error("Failed to save budget.", e);
+                    return new InternalServerErrorException("Failed to save budget.", e);
+                });
+    }
+}
@@ -0,0 +1,87 @@
+package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import pl.konradboniecki.budget.mvc.model.Expense;
+import pl.konradboniecki.budget.mvc.service.client.ReactiveBridge;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpensePage;
+import pl.konradboniecki.chassis.exceptions.BadRequestException;
+import pl.konradboniecki.chassis.exceptions.InternalServerErrorException;
+import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class ReactiveExpenseManagementClient {
+    private static final String BASE_PATH = "/api/budget-mgt/v1";
+    private static final String MSG_FAILED_TO_SAVE_EXPENSE = "Failed to save expense.";
+
+    @Setter
+    @Value("${budget.baseUrl.budgetManagement}")
+    private String gatewayUrl;
+    private final WebClient webClient;
+
+    @Autowired
+    public ReactiveExpenseManagementClient(WebClient downstreamWebClient) {
+        this.webClient = downstreamWebClient;
+    }
+
+    public Flux<Expense> getAllExpensesFromBudgetWithId(String budgetId) {
+        return webClient.get()
+                .uri(gatewayUrl + BASE_PATH + "/budgets/{budgetId}/expenses", budgetId)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .bodyToMono(OASExpensePage.class)
+                .flatMapIterable(OASExpensePage::getItems)
+                .filter(Objects::nonNull)
+                .map(ExpenseManagementClient::toExpense);
+    }
+
+    public Mono<Expense> saveExpense(Expense ex, String budgetId) {
+        return webClient.post()
+                .uri(gatewayUrl + BASE_PATH + "/budgets/{budgetId}/expenses", budgetId)
+                .contentType(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .bodyValue(ex)
+                .retrieve()
+                .bodyToMono(Expense.class)
+                .onErrorMap(WebClientResponseException.BadRequest.class, e -> {
+                    log.error(MSG_FAILED_TO_SAVE_EXPENSE, e);
+                    return new BadRequestException(MSG_FAILED_TO_SAVE_EXPENSE);
+                })
+                .onErrorMap(e -> e instanceof WebClientResponseException
+                        && ((WebClientResponseException) e).getStatusCode().is5xxServerError(), e -> {
+                    log.error(MSG_FAILED_TO_SAVE_EXPENSE, e);
+                    return new InternalServerErrorException(MSG_FAILED_TO_SAVE_EXPENSE, e);
+                });
+    }
+
+    public Mono<Boolean> deleteExpenseInBudget(String expenseId, String budgetId) {
+        return webClient.delete()
+                .uri(gatewayUrl + BASE_PATH + "/budgets/{budgetId}/expenses/{expenseId}", budgetId, expenseId)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .toBodilessEntity()
+                .map(responseEntity -> responseEntity.getStatusCode() == HttpStatus.NO_CONTENT)
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.error("Failed to remove expense With id: " + expenseId + "from budget with id: " + budgetId);
+                    return Mono.just(false);
+                });
+    }
+}
@@ -0,0 +1,103 @@
+package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import pl.konradboniecki.budget.mvc.model.Jar;
+import pl.konradboniecki.budget.mvc.service.client.ReactiveBridge;
+import pl.konradboniecki.budget.openapi.dto.model.OASJarPage;
+import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "budget.client.reactive.enabled", havingValue = "true")
+public class ReactiveJarManagementClient {
+    private static final String BASE_PATH = "/api/budget-mgt/v1";
+
+    @Setter
+    @Value("${budget.baseUrl.budgetManagement}")
+    private String gatewayUrl;
+    private final WebClient webClient;
+
+    @Autowired
+    public ReactiveJarManagementClient(WebClient downstreamWebClient) {
+        this.webClient = downstreamWebClient;
+    }
+
+    public Mono<Jar> findInBudgetById(String budgetId, String jarId) {
+        return webClient.get()
+                .uri(gatewayUrl + BASE_PATH + "/budgets/{budgetId}/jars/{jarId}", budgetId, jarId)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .bodyToMono(Jar.class)
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.error("jar with id: " + jarId + " not found in budget with id: " + budgetId);
+                    return Mono.empty();
+                });
+    }
+
+    public Flux<Jar> getAllJarsFromBudgetWithId(String budgetId) {
+        return webClient.get()
+                .uri(gatewayUrl + BASE_PATH + "/budgets/{budgetId}/jars", budgetId)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .bodyToMono(OASJarPage.class)
+                .flatMapIterable(OASJarPage::getItems)
+                .filter(Objects::nonNull)
+                .map(JarManagementClient::toJar);
+    }
+
+    public Mono<Boolean> removeJarFromBudget(String jarId, String budgetId) {
+        return webClient.delete()
+                .uri(gatewayUrl + BASE_PATH + "/budgets/{budgetId}/jars/{jarId}", budgetId, jarId)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .retrieve()
+                .toBodilessEntity()
+                .map(responseEntity -> responseEntity.getStatusCode() == HttpStatus.NO_CONTENT)
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.error("Failed to delete jar with id: " + jarId + ", from budget with id: " + budgetId + ".");
+                    return Mono.just(false);
+                });
+    }
+
+    public Mono<Jar> saveJar(Jar jar, String budgetId) {
+        return webClient.post()
+                .uri(gatewayUrl + BASE_PATH + "/budgets/{budgetId}/jars", budgetId)
+                .contentType(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .bodyValue(jar)
+                .retrieve()
+                .bodyToMono(Jar.class)
+                .doOnError(ReactiveBridge::isClientError, e -> log.error("Failed to create jar.", e));
+    }
+
+    public Mono<Jar> updateJar(Jar jar, String budgetId) {
+        return webClient.put()
+                .uri(gatewayUrl + BASE_PATH + "/budgets/{budgetId}/jars/{jarId}", budgetId, jar.getId())
+                .contentType(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .headers(headers -> headers.setBasicAuth(ChassisSecurityBasicAuthHelper.getEncodedCredentials()))
+                .bodyValue(jar)
+                .retrieve()
+                .bodyToMono(Jar.class)
+                .onErrorResume(ReactiveBridge::isClientError, e -> {
+                    log.error("Failed to update jar in budget with id: " + budgetId, e);
+                    return Mono.empty();
+                });
+    }
+}
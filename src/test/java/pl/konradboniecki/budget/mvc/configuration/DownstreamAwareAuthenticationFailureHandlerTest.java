@@ -0,0 +1,54 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import pl.konradboniecki.budget.mvc.service.client.Downstream;
+import pl.konradboniecki.budget.mvc.service.client.DownstreamUnavailableException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class DownstreamAwareAuthenticationFailureHandlerTest {
+
+    private static final String FAILURE_URL = "http://gateway/login?error";
+
+    private DownstreamAwareAuthenticationFailureHandler failureHandler;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        failureHandler = new DownstreamAwareAuthenticationFailureHandler(FAILURE_URL);
+        request = new MockHttpServletRequest("POST", "/authenticate");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void givenUnavailableDownstream_whenLoginFails_thenForwardToServiceUnavailable() throws Exception {
+        // Given:
+        DownstreamUnavailableException cause = new DownstreamUnavailableException(
+                Downstream.ACCOUNT_MANAGEMENT, "Circuit breaker of accountManagement is OPEN.", null);
+        // When:
+        failureHandler.onAuthenticationFailure(request, response,
+                new InternalAuthenticationServiceException(cause.getMessage(), cause));
+        // Then:
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getForwardedUrl())
+                .isEqualTo(DownstreamAwareAuthenticationFailureHandler.SERVICE_UNAVAILABLE_PATH);
+    }
+
+    @Test
+    void givenBadCredentials_whenLoginFails_thenRedirectToFailureUrl() throws Exception {
+        // When:
+        failureHandler.onAuthenticationFailure(request, response, new BadCredentialsException("Bad credentials"));
+        // Then:
+        assertThat(response.getRedirectedUrl()).isEqualTo(FAILURE_URL);
+        assertThat(response.getForwardedUrl()).isNull();
+    }
+}
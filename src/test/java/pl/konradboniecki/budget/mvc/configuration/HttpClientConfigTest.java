@@ -0,0 +1,69 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class HttpClientConfigTest {
+
+    private HttpClientConfig httpClientConfig;
+    private HttpClientProperties properties;
+    private MockEnvironment environment;
+
+    @BeforeEach
+    void setUp() {
+        httpClientConfig = new HttpClientConfig();
+        properties = new HttpClientProperties();
+        properties.setMaxConnectionsPerRoute(50);
+        environment = new MockEnvironment();
+    }
+
+    @Test
+    void givenLimitBelowRouteDefault_whenPoolCreated_thenLimitApplied() throws IOException {
+        // Given:
+        environment.setProperty("budget.baseUrl.mail", "http://mail:8080");
+        properties.setMaxConnectionsPerDownstream(Map.of("mail", 10));
+        // When:
+        try (PoolingHttpClientConnectionManager connectionManager =
+                     httpClientConfig.downstreamConnectionManager(properties, environment)) {
+            // Then:
+            assertThat(connectionManager.getMaxPerRoute(HttpClientConfig.toRoute("http://mail:8080"))).isEqualTo(10);
+            assertThat(connectionManager.getDefaultMaxPerRoute()).isEqualTo(50);
+        }
+    }
+
+    @Test
+    void givenDownstreamsSharingRoute_whenPoolCreated_thenLargestLimitApplied() throws IOException {
+        // Given:
+        environment.setProperty("budget.baseUrl.mail", "http://gateway:8080");
+        environment.setProperty("budget.baseUrl.familyManagement", "http://gateway:8080/");
+        properties.setMaxConnectionsPerDownstream(Map.of("mail", 10, "familyManagement", 30));
+        // When:
+        try (PoolingHttpClientConnectionManager connectionManager =
+                     httpClientConfig.downstreamConnectionManager(properties, environment)) {
+            // Then:
+            assertThat(connectionManager.getMaxPerRoute(HttpClientConfig.toRoute("http://gateway:8080"))).isEqualTo(30);
+        }
+    }
+
+    @Test
+    void givenDownstreamWithoutBaseUrl_whenPoolCreated_thenLimitIgnored() throws IOException {
+        // Given:
+        properties.setMaxConnectionsPerDownstream(Map.of("unknown", 5));
+        // When:
+        try (PoolingHttpClientConnectionManager connectionManager =
+                     httpClientConfig.downstreamConnectionManager(properties, environment)) {
+            // Then:
+            assertThat(connectionManager.getMaxPerRoute(HttpClientConfig.toRoute("http://unknown:8080"))).isEqualTo(50);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.mock.web.MockHttpServletRequest;
+import pl.konradboniecki.budget.mvc.service.client.RequestDeadline;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class RequestDeadlineConfigTest {
+
+    private final RequestDeadlineConfig requestDeadlineConfig = new RequestDeadlineConfig(Duration.ofSeconds(10));
+
+    @Test
+    void givenShorterCallerTimeout_whenTimeoutOf_thenCallerTimeoutUsed() {
+        // Given:
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(RequestDeadline.TIMEOUT_HEADER, "2000");
+        // When:
+        Duration timeout = requestDeadlineConfig.timeoutOf(request);
+        // Then:
+        assertThat(timeout).isEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void givenNegativeCallerTimeout_whenTimeoutOf_thenHeaderIgnored() {
+        // Given:
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(RequestDeadline.TIMEOUT_HEADER, "-1");
+        // When:
+        Duration timeout = requestDeadlineConfig.timeoutOf(request);
+        // Then:
+        assertThat(timeout).isEqualTo(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,88 @@
+package pl.konradboniecki.budget.mvc.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class VirtualThreadsTest {
+
+    @Test
+    void givenJava21Runtime_whenTaskSubmitted_thenRunsOnNamedVirtualThread() throws Exception {
+        // Given:
+        assumeTrue(VirtualThreads.isSupported());
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor("test-vt-");
+        try {
+            // When:
+            Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+            // Then:
+            assertThat(thread.getName()).startsWith("test-vt-");
+            assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void givenRuntimeBeforeJava21_whenExecutorCreated_thenThrowIllegalState() {
+        // Given:
+        assumeFalse(VirtualThreads.isSupported());
+        // When:
+        Throwable throwable = catchThrowable(() -> VirtualThreads.newVirtualThreadPerTaskExecutor("test-vt-"));
+        // Then:
+        assertThat(throwable)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Java 21");
+    }
+
+    @Test
+    void givenMetrics_whenBound_thenSchedulerGaugesRegistered() {
+        // Given:
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // When:
+        try (VirtualThreadMetrics metrics = new VirtualThreadMetrics(Duration.ofMillis(20))) {
+            metrics.bindTo(meterRegistry);
+            // Then:
+            assertThat(meterRegistry.get("budget.virtual-threads.carrier.parallelism").gauge().value()).isPositive();
+            assertThat(meterRegistry.get("budget.virtual-threads.carrier.threads").gauge().value()).isNotNegative();
+            assertThat(meterRegistry.get("budget.virtual-threads.pinned").timer().count()).isZero();
+        }
+    }
+
+    @Test
+    void givenMetricsBound_whenBoundToAnotherRegistry_thenMetersRegisteredWithoutRestartingRecording() {
+        // Given:
+        SimpleMeterRegistry first = new SimpleMeterRegistry();
+        SimpleMeterRegistry second = new SimpleMeterRegistry();
+        try (VirtualThreadMetrics metrics = new VirtualThreadMetrics(Duration.ofMillis(20))) {
+            metrics.bindTo(first);
+            // When:
+            Throwable throwable = catchThrowable(() -> metrics.bindTo(second));
+            // Then:
+            assertThat(throwable).isNull();
+            assertThat(second.get("budget.virtual-threads.pinned").timer().count()).isZero();
+        }
+    }
+
+    @Test
+    void givenClosedMetrics_whenClosedAgain_thenNothingThrown() {
+        // Given:
+        VirtualThreadMetrics metrics = new VirtualThreadMetrics(Duration.ofMillis(20));
+        metrics.bindTo(new SimpleMeterRegistry());
+        metrics.close();
+        // When:
+        Throwable throwable = catchThrowable(metrics::close);
+        // Then:
+        assertThat(throwable).isNull();
+    }
+}
@@ -0,0 +1,38 @@
+package pl.konradboniecki.budget.mvc.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class AccountPrincipalTest {
+
+    @Test
+    void testInitFromAccount() {
+        Account acc = new Account()
+                .setId("acc-1")
+                .setEmail("TEST@mail.com")
+                .setFamilyId("fam-1")
+                .setEnabled(true);
+
+        AccountPrincipal principal = AccountPrincipal.from(acc);
+        assertAll(
+                () -> assertEquals("acc-1", principal.getId()),
+                () -> assertEquals("test@mail.com", principal.getName()),
+                () -> assertEquals("fam-1", principal.getFamilyId()),
+                () -> assertTrue(principal.isEnabled())
+        );
+    }
+
+    @Test
+    void testWithFamilyIdKeepsOriginal() {
+        AccountPrincipal principal = new AccountPrincipal("acc-1", "test@mail.com", null, true);
+
+        AccountPrincipal withFamily = principal.withFamilyId("fam-1");
+        assertFalse(principal.hasFamily());
+        assertTrue(withFamily.hasFamily());
+        assertEquals(principal.getId(), withFamily.getId());
+    }
+}
@@ -0,0 +1,104 @@
+package pl.konradboniecki.budget.mvc.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class ChunkedItemsTest {
+
+    private static final int TOTAL = 5;
+    private static final int CHUNK_SIZE = 2;
+
+    @Test
+    void givenThreePages_whenIterated_thenPagesFetchedLazilyAndFlushedBetween() {
+        // Given:
+        List<String> events = new ArrayList<>();
+        ChunkedItems<Integer> items = new ChunkedItems<>(page(0), page -> {
+            events.add("fetch " + page);
+            return page(page);
+        }, () -> events.add("flush"));
+        // When:
+        List<Integer> read = new ArrayList<>();
+        for (Integer item : items) {
+            read.add(item);
+            events.add("item " + item);
+        }
+        // Then:
+        assertThat(read).containsExactly(0, 1, 2, 3, 4);
+        assertThat(events).containsExactly(
+                "item 0", "item 1", "flush", "fetch 1",
+                "item 2", "item 3", "flush", "fetch 2",
+                "item 4");
+    }
+
+    @Test
+    void givenFullPageWithoutTotals_whenNextPageEmpty_thenIterationStops() {
+        // Given:
+        AtomicInteger fetches = new AtomicInteger();
+        ResultPage<Integer> firstPage = new ResultPage<>(List.of(1, 2), 0, CHUNK_SIZE, -1, -1);
+        ChunkedItems<Integer> items = new ChunkedItems<>(firstPage, page -> {
+            fetches.incrementAndGet();
+            return new ResultPage<>(List.of(), page, CHUNK_SIZE, -1, -1);
+        }, () -> {
+        });
+        // When:
+        List<Integer> read = new ArrayList<>();
+        items.forEach(read::add);
+        // Then:
+        assertThat(read).containsExactly(1, 2);
+        assertThat(fetches).hasValue(1);
+        assertThat(items.isEmpty()).isFalse();
+    }
+
+    @Test
+    void givenFailingSecondPage_whenIterated_thenIterationStopsAndItemsAreIncomplete() {
+        // Given:
+        IllegalStateException failure = new IllegalStateException("downstream failure");
+        AtomicInteger fetches = new AtomicInteger();
+        ChunkedItems<Integer> items = new ChunkedItems<>(page(0), page -> {
+            fetches.incrementAndGet();
+            throw failure;
+        }, () -> {
+        });
+        // When:
+        List<Integer> read = new ArrayList<>();
+        Iterator<Integer> iterator = items.iterator();
+        iterator.forEachRemaining(read::add);
+        boolean hasNextAfterFailure = iterator.hasNext();
+        // Then:
+        assertThat(read).containsExactly(0, 1);
+        assertThat(hasNextAfterFailure).isFalse();
+        assertThat(fetches).hasValue(1);
+        assertThat(items.isIncomplete()).isTrue();
+        assertThat(items.getFailure()).containsSame(failure);
+    }
+
+    @Test
+    void givenAllPages_whenIterated_thenItemsAreComplete() {
+        // Given:
+        ChunkedItems<Integer> items = new ChunkedItems<>(page(0), ChunkedItemsTest::page, () -> {
+        });
+        // When:
+        items.forEach(item -> {
+        });
+        // Then:
+        assertThat(items.isIncomplete()).isFalse();
+    }
+
+    private static ResultPage<Integer> page(int page) {
+        List<Integer> pageItems = IntStream.range(page * CHUNK_SIZE, Math.min(TOTAL, (page + 1) * CHUNK_SIZE))
+                .boxed()
+                .collect(Collectors.toList());
+        return new ResultPage<>(pageItems, page, CHUNK_SIZE, TOTAL, (TOTAL + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    }
+}
@@ -16,7 +16,8 @@ class ErrorTypeTest {
             ()-> Assertions.assertEquals("invalidInvitationLink", ErrorType.INVALID_INVITATION_LINK.getErrorTypeVarName()),
             ()-> Assertions.assertEquals("invalidActivationLink", ErrorType.INVALID_ACTIVATION_LINK.getErrorTypeVarName()),
             ()-> Assertions.assertEquals("processingException", ErrorType.PROCESSING_EXCEPTION.getErrorTypeVarName()),
-            ()-> Assertions.assertEquals("notEnoughSpaceInFamily", ErrorType.NOT_ENOUGH_SPACE_IN_FAMILY.getErrorTypeVarName())
+            ()-> Assertions.assertEquals("notEnoughSpaceInFamily", ErrorType.NOT_ENOUGH_SPACE_IN_FAMILY.getErrorTypeVarName()),
+            ()-> Assertions.assertEquals("serviceUnavailable", ErrorType.SERVICE_UNAVAILABLE.getErrorTypeVarName())
         );
     }
 }
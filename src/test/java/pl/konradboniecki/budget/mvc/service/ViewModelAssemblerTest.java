@@ -0,0 +1,160 @@
+package pl.konradboniecki.budget.mvc.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+import pl.konradboniecki.budget.mvc.service.client.RequestDeadline;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class ViewModelAssemblerTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenIndependentParts_whenForked_thenTheyRunConcurrently() {
+        // Given:
+        ViewModelAssembler viewModelAssembler = new ViewModelAssembler(executor, Duration.ofSeconds(5));
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        ViewModelAssembler.Assembly assembly = viewModelAssembler.start();
+        // When:
+        CompletableFuture<String> first = assembly.fork(() -> awaitOther(bothStarted, "first"));
+        CompletableFuture<String> second = assembly.fork(() -> awaitOther(bothStarted, "second"));
+        // Then:
+        assertThat(assembly.join(first)).isEqualTo("first");
+        assertThat(assembly.join(second)).isEqualTo("second");
+    }
+
+    @Test
+    void givenSlowPart_whenDeadlinePassed_thenThrowGatewayTimeout() {
+        // Given:
+        ViewModelAssembler viewModelAssembler = new ViewModelAssembler(executor, Duration.ofMillis(50));
+        ViewModelAssembler.Assembly assembly = viewModelAssembler.start();
+        CompletableFuture<String> slowPart = assembly.fork(() -> sleepAndReturn(Duration.ofSeconds(2)));
+        // When:
+        Throwable throwable = catchThrowable(() -> assembly.join(slowPart));
+        // Then:
+        assertThat(throwable).isInstanceOf(ResponseStatusException.class);
+        assertThat(((ResponseStatusException) throwable).getStatusCode().value()).isEqualTo(504);
+    }
+
+    @Test
+    void givenSlowPart_whenDeadlinePassed_thenItsTaskIsInterrupted() throws InterruptedException {
+        // Given:
+        ViewModelAssembler viewModelAssembler = new ViewModelAssembler(executor, Duration.ofMillis(50));
+        ViewModelAssembler.Assembly assembly = viewModelAssembler.start();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> slowPart = assembly.fork(() -> {
+            try {
+                Thread.sleep(Duration.ofSeconds(5).toMillis());
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "slow";
+        });
+        // When:
+        catchThrowable(() -> assembly.join(slowPart));
+        // Then:
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void givenRequestDeadline_whenStarted_thenAssemblyLastsUntilRequestDeadline() {
+        // Given:
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        RequestDeadline.start(request, Duration.ofSeconds(5));
+        ViewModelAssembler viewModelAssembler = new ViewModelAssembler(executor, Duration.ofMillis(50));
+        try {
+            ViewModelAssembler.Assembly assembly = viewModelAssembler.start();
+            CompletableFuture<String> slowerThanFallback = assembly.fork(() -> sleepAndReturn(Duration.ofMillis(200)));
+            // When:
+            String result = assembly.join(slowerThanFallback);
+            // Then:
+            assertThat(result).isEqualTo("slow");
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void givenFailingPart_whenJoined_thenRethrowOriginalException() {
+        // Given:
+        ViewModelAssembler viewModelAssembler = new ViewModelAssembler(executor, Duration.ofSeconds(5));
+        ViewModelAssembler.Assembly assembly = viewModelAssembler.start();
+        CompletableFuture<String> failingPart = assembly.fork(() -> {
+            throw new IllegalArgumentException("downstream failure");
+        });
+        // When:
+        Throwable throwable = catchThrowable(() -> assembly.join(failingPart));
+        // Then:
+        assertThat(throwable).isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("downstream failure");
+    }
+
+    @Test
+    void givenFailingPart_whenJoined_thenRunningSiblingIsCancelled() throws InterruptedException {
+        // Given:
+        ViewModelAssembler viewModelAssembler = new ViewModelAssembler(executor, Duration.ofSeconds(5));
+        ViewModelAssembler.Assembly assembly = viewModelAssembler.start();
+        CountDownLatch siblingStarted = new CountDownLatch(1);
+        CountDownLatch siblingInterrupted = new CountDownLatch(1);
+        CompletableFuture<String> sibling = assembly.fork(() -> {
+            siblingStarted.countDown();
+            try {
+                Thread.sleep(Duration.ofSeconds(5).toMillis());
+            } catch (InterruptedException e) {
+                siblingInterrupted.countDown();
+            }
+            return "sibling";
+        });
+        CompletableFuture<String> failingPart = assembly.fork(() -> {
+            throw new IllegalArgumentException("downstream failure");
+        });
+        assertThat(siblingStarted.await(2, TimeUnit.SECONDS)).isTrue();
+        // When:
+        catchThrowable(() -> assembly.join(failingPart));
+        // Then:
+        assertThat(siblingInterrupted.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(sibling).isCancelled();
+    }
+
+    private static String awaitOther(CountDownLatch bothStarted, String result) {
+        bothStarted.countDown();
+        try {
+            // completes only when the other part runs at the same time
+            assertThat(bothStarted.await(2, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    private static String sleepAndReturn(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "slow";
+    }
+}
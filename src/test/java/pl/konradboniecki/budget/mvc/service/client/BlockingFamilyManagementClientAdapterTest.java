@@ -0,0 +1,100 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import pl.konradboniecki.budget.mvc.model.Family;
+import pl.konradboniecki.budget.mvc.model.Invitation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class BlockingFamilyManagementClientAdapterTest {
+
+    private StubReactiveClient reactiveClient;
+    private BlockingFamilyManagementClientAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        reactiveClient = new StubReactiveClient();
+        adapter = new BlockingFamilyManagementClientAdapter(new RestTemplate(),
+                new RequestIdentityMap(meterRegistry, new SingleFlight(meterRegistry),
+                        new PrefetchTracker(meterRegistry, Duration.ofMinutes(5))),
+                new FamilyCache(meterRegistry, 100, Duration.ofMinutes(5)),
+                new NegativeLookupCache(meterRegistry, 100, Duration.ofSeconds(30)),
+                reactiveClient);
+    }
+
+    @Test
+    void givenFamily_whenFoundTwice_thenReactiveClientCalledOnce() {
+        // Given:
+        reactiveClient.family = Mono.just(new Family().setId("1").setTitle("title"));
+        // When:
+        Optional<Family> first = adapter.findFamilyById("1");
+        Optional<Family> second = adapter.findFamilyById("1");
+        // Then:
+        assertThat(first).hasValueSatisfying(family -> assertThat(family.getTitle()).isEqualTo("title"));
+        assertThat(second).isEqualTo(first);
+        assertThat(reactiveClient.calls).hasValue(1);
+    }
+
+    @Test
+    void givenServerError_whenFound_thenRestTemplateExceptionThrown() {
+        // Given:
+        reactiveClient.family = Mono.error(WebClientResponseException.create(
+                HttpStatus.BAD_GATEWAY.value(), "Bad Gateway", HttpHeaders.EMPTY, new byte[0], null));
+        // When:
+        Throwable throwable = catchThrowable(() -> adapter.findFamilyById("2"));
+        // Then:
+        assertThat(throwable).isInstanceOf(HttpServerErrorException.class);
+        assertThat(((HttpServerErrorException) throwable).getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY);
+    }
+
+    @Test
+    void givenInvitations_whenFoundByEmail_thenAllReturned() {
+        // Given:
+        reactiveClient.invitations = Flux.just(new Invitation().setId("1"), new Invitation().setId("2"));
+        // When:
+        List<Invitation> invitations = adapter.findAllInvitationsByEmail("test@mail.com");
+        // Then:
+        assertThat(invitations).extracting(Invitation::getId).containsExactly("1", "2");
+    }
+
+    private static class StubReactiveClient extends ReactiveFamilyManagementClient {
+        private final AtomicInteger calls = new AtomicInteger();
+        private Mono<Family> family = Mono.empty();
+        private Flux<Invitation> invitations = Flux.empty();
+
+        StubReactiveClient() {
+            super(WebClient.create());
+        }
+
+        @Override
+        public Mono<Family> findFamilyById(String familyId) {
+            calls.incrementAndGet();
+            return family;
+        }
+
+        @Override
+        public Flux<Invitation> findAllInvitationsByEmail(String email) {
+            return invitations;
+        }
+    }
+}
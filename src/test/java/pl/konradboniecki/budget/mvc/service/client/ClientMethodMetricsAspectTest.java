@@ -0,0 +1,81 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class ClientMethodMetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SampleClient client;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new SampleClient());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ClientMethodMetricsAspect(meterRegistry));
+        client = proxyFactory.getProxy();
+    }
+
+    @Test
+    void givenSuccessfulCall_whenFind_thenTimedAsSuccess() {
+        // When:
+        client.find("1");
+        // Then:
+        assertThat(meterRegistry.get("budget.client.method")
+                .tag("client", "SampleClient")
+                .tag("method", "find")
+                .tag("outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("budget.client.method.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void givenServerError_whenFind_thenTimedWithStatusClass() {
+        // When:
+        Throwable throwable = catchThrowable(() -> client.find("fail"));
+        // Then:
+        assertThat(throwable).isInstanceOf(HttpServerErrorException.class);
+        assertThat(meterRegistry.get("budget.client.method")
+                .tag("method", "find")
+                .tag("outcome", "5xx")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void givenSetter_whenCalled_thenNotTimed() {
+        // When:
+        client.setGatewayUrl("http://localhost");
+        // Then:
+        assertThat(meterRegistry.find("budget.client.method").tag("method", "setGatewayUrl").timer()).isNull();
+    }
+
+    @Test
+    void givenConnectionError_whenOutcomeOf_thenExceptionType() {
+        // Then:
+        assertThat(ClientMethodMetricsAspect.outcomeOf(new IllegalStateException())).isEqualTo("IllegalStateException");
+    }
+}
+
+class SampleClient {
+
+    public String find(String id) {
+        if ("fail".equals(id)) {
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        }
+        return id;
+    }
+
+    public void setGatewayUrl(String gatewayUrl) {
+    }
+}
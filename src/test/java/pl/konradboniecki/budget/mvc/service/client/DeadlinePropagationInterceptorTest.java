@@ -0,0 +1,141 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+import static org.springframework.test.web.client.ExpectedCount.never;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@TestInstance(PER_CLASS)
+class DeadlinePropagationInterceptorTest {
+
+    private static final String FAMILY_URL = "http://localhost/api/family-mgt/v1/families/1";
+
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+    private MockHttpServletRequest servletRequest;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(new DeadlinePropagationInterceptor(new SimpleMeterRegistry())));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        servletRequest = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(servletRequest));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenTimeLeft_whenCall_thenRemainingBudgetIsForwarded() {
+        // Given:
+        RequestDeadline.start(servletRequest, Duration.ofSeconds(5));
+        server.expect(requestTo(FAMILY_URL))
+                .andExpect(header(RequestDeadline.TIMEOUT_HEADER, value -> assertThat(Long.parseLong(value))
+                        .isBetween(1L, 5000L)))
+                .andRespond(withSuccess());
+        // When:
+        restTemplate.getForEntity(FAMILY_URL, String.class);
+        // Then:
+        server.verify();
+    }
+
+    @Test
+    void givenDeadlineExceeded_whenCall_thenFailFastWithoutCall() {
+        // Given:
+        RequestDeadline.start(servletRequest, Duration.ofMillis(-1));
+        server.expect(never(), requestTo(FAMILY_URL));
+        // When:
+        Throwable throwable = catchThrowable(() -> restTemplate.getForEntity(FAMILY_URL, String.class));
+        // Then:
+        assertThat(throwable).isInstanceOf(RequestDeadlineExceededException.class);
+        assertThat(((RequestDeadlineExceededException) throwable).getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        server.verify();
+    }
+
+    @Test
+    void givenShorterDeadlineStartedLater_whenStart_thenEarlierDeadlineIsKept() {
+        // Given:
+        RequestDeadline.start(servletRequest, Duration.ofSeconds(1));
+        // When:
+        RequestDeadline.start(servletRequest, Duration.ofSeconds(30));
+        // Then:
+        assertThat(RequestDeadline.remaining()).hasValueSatisfying(remaining ->
+                assertThat(remaining).isLessThanOrEqualTo(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void givenTimeLeft_whenWebClientCall_thenRemainingBudgetIsForwarded() {
+        // Given:
+        RequestDeadline.start(servletRequest, Duration.ofSeconds(5));
+        List<ClientRequest> sent = new CopyOnWriteArrayList<>();
+        WebClient webClient = webClientRecording(sent);
+        // When:
+        webClient.get().uri(FAMILY_URL).retrieve().toBodilessEntity().block();
+        // Then:
+        assertThat(sent).hasSize(1);
+        assertThat(Long.parseLong(sent.get(0).headers().getFirst(RequestDeadline.TIMEOUT_HEADER)))
+                .isBetween(1L, 5000L);
+    }
+
+    @Test
+    void givenDeadlineExceeded_whenWebClientCall_thenFailFastWithoutCall() {
+        // Given:
+        RequestDeadline.start(servletRequest, Duration.ofMillis(-1));
+        List<ClientRequest> sent = new CopyOnWriteArrayList<>();
+        WebClient webClient = webClientRecording(sent);
+        // When:
+        Throwable throwable = catchThrowable(() -> webClient.get().uri(FAMILY_URL).retrieve().toBodilessEntity().block());
+        // Then:
+        assertThat(throwable).isInstanceOf(RequestDeadlineExceededException.class);
+        assertThat(sent).isEmpty();
+    }
+
+    @Test
+    void givenNoRequest_whenCall_thenNoHeader() {
+        // Given:
+        RequestContextHolder.resetRequestAttributes();
+        server.expect(requestTo(FAMILY_URL))
+                .andExpect(request -> assertThat(request.getHeaders()).doesNotContainKey(RequestDeadline.TIMEOUT_HEADER))
+                .andRespond(withSuccess());
+        // When:
+        restTemplate.getForEntity(FAMILY_URL, String.class);
+        // Then:
+        server.verify();
+    }
+
+    private static WebClient webClientRecording(List<ClientRequest> sent) {
+        return WebClient.builder()
+                .exchangeFunction(request -> {
+                    sent.add(request);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+                })
+                .filter(new DeadlinePropagationInterceptor(new SimpleMeterRegistry()))
+                .build();
+    }
+}
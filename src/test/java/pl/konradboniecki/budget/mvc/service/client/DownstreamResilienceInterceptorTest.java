@@ -0,0 +1,197 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+
+@TestInstance(PER_CLASS)
+class DownstreamResilienceInterceptorTest {
+
+    private static final String JARS_URL = "http://localhost/api/budget-mgt/v1/budgets/1/jars";
+
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(
+                new DownstreamResilienceInterceptor(circuitBreakerRegistry, BulkheadRegistry.ofDefaults())));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    void givenFailingDownstream_whenFailureRateExceeded_thenFailFastWithoutCall() {
+        // Given:
+        server.expect(times(2), requestTo(JARS_URL)).andRespond(withStatus(HttpStatus.BAD_GATEWAY));
+        catchThrowable(() -> restTemplate.getForEntity(JARS_URL, String.class));
+        catchThrowable(() -> restTemplate.getForEntity(JARS_URL, String.class));
+        // When:
+        Throwable throwable = catchThrowable(() -> restTemplate.getForEntity(JARS_URL, String.class));
+        // Then:
+        assertThat(throwable).isInstanceOf(DownstreamUnavailableException.class);
+        assertThat(((DownstreamUnavailableException) throwable).getDownstream()).isEqualTo(Downstream.BUDGET_MANAGEMENT);
+        server.verify();
+    }
+
+    @Test
+    void givenClientErrors_whenCalled_thenCircuitStaysClosed() {
+        // Given:
+        server.expect(times(3), requestTo(JARS_URL)).andRespond(withStatus(HttpStatus.NOT_FOUND));
+        // When:
+        catchThrowable(() -> restTemplate.getForEntity(JARS_URL, String.class));
+        catchThrowable(() -> restTemplate.getForEntity(JARS_URL, String.class));
+        Throwable throwable = catchThrowable(() -> restTemplate.getForEntity(JARS_URL, String.class));
+        // Then:
+        assertThat(throwable).isInstanceOf(HttpClientErrorException.NotFound.class);
+        assertThat(circuitBreakerRegistry.circuitBreaker("budgetManagement").getState().name()).isEqualTo("CLOSED");
+        server.verify();
+    }
+
+    @Test
+    void givenUnclosedResponse_whenCalledAgain_thenBulkheadPermitStillHeld() throws IOException {
+        // Given:
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        DownstreamResilienceInterceptor interceptor =
+                new DownstreamResilienceInterceptor(circuitBreakerRegistry, bulkheadRegistry);
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create(JARS_URL));
+        ClientHttpRequestExecution execution = (req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        ClientHttpResponse unread = interceptor.intercept(request, new byte[0], execution);
+        // When:
+        Throwable whileOpen = catchThrowable(() -> interceptor.intercept(request, new byte[0], execution));
+        unread.close();
+        Throwable afterClose = catchThrowable(() -> interceptor.intercept(request, new byte[0], execution).close());
+        // Then:
+        assertThat(whileOpen).isInstanceOf(DownstreamUnavailableException.class);
+        assertThat(afterClose).isNull();
+    }
+
+    @Test
+    void givenOpenCircuit_whenWebClientCall_thenFailFastWithoutCall() {
+        // Given:
+        circuitBreakerRegistry.circuitBreaker("budgetManagement").transitionToOpenState();
+        AtomicInteger calls = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    calls.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+                })
+                .filter(new DownstreamResilienceInterceptor(circuitBreakerRegistry, BulkheadRegistry.ofDefaults()))
+                .build();
+        // When:
+        Throwable throwable = catchThrowable(() -> webClient.get().uri(JARS_URL).retrieve().toBodilessEntity().block());
+        // Then:
+        assertThat(throwable).isInstanceOf(DownstreamUnavailableException.class);
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void givenWebClientBodyConsumed_whenCalledAgain_thenBulkheadPermitReleased() {
+        // Given:
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                        .body("[]")
+                        .build()))
+                .filter(new DownstreamResilienceInterceptor(circuitBreakerRegistry, bulkheadRegistry))
+                .build();
+        webClient.get().uri(JARS_URL).retrieve().bodyToMono(String.class).block();
+        // When:
+        String body = webClient.get().uri(JARS_URL).retrieve().bodyToMono(String.class).block();
+        // Then:
+        assertThat(body).isEqualTo("[]");
+        assertThat(bulkheadRegistry.bulkhead("budgetManagement").getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void givenTimeoutAfterRequestDeadline_whenCalled_thenNotCountedAsFailure() {
+        // Given:
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(servletRequest));
+        RequestDeadline.start(servletRequest, Duration.ofMillis(20));
+        DownstreamResilienceInterceptor interceptor =
+                new DownstreamResilienceInterceptor(circuitBreakerRegistry, BulkheadRegistry.ofDefaults());
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create(JARS_URL));
+        ClientHttpRequestExecution timingOut = (req, body) -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new SocketTimeoutException("Read timed out");
+        };
+        try {
+            // When:
+            Throwable throwable = catchThrowable(() -> interceptor.intercept(request, new byte[0], timingOut));
+            // Then:
+            assertThat(throwable).isInstanceOf(SocketTimeoutException.class);
+            assertThat(circuitBreakerRegistry.circuitBreaker("budgetManagement").getMetrics().getNumberOfFailedCalls())
+                    .isZero();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void givenOpenCircuitOfOtherDownstream_whenAccountCalled_thenCallPasses() {
+        // Given:
+        circuitBreakerRegistry.circuitBreaker("budgetManagement").transitionToOpenState();
+        String accountUrl = "http://localhost/api/account-mgt/v1/accounts/1";
+        server.expect(requestTo(accountUrl)).andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+        // When:
+        Throwable throwable = catchThrowable(() -> restTemplate.getForEntity(accountUrl, String.class));
+        // Then:
+        assertThat(throwable).isInstanceOf(HttpServerErrorException.class);
+        server.verify();
+    }
+}
@@ -0,0 +1,94 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import pl.konradboniecki.budget.mvc.model.Family;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class FamilyCacheTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private FamilyCache familyCache;
+    private AtomicInteger fetches;
+
+    @BeforeEach
+    void setUp() {
+        familyCache = new FamilyCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        fetches = new AtomicInteger();
+    }
+
+    @AfterAll
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenConcurrentMisses_whenFindById_thenFetchOnce() {
+        // Given:
+        CountDownLatch release = new CountDownLatch(1);
+        // When:
+        List<CompletableFuture<Optional<Family>>> lookups = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(
+                        () -> familyCache.findById("fam-1", id -> slowFetch(id, release)), executor))
+                .collect(Collectors.toList());
+        release.countDown();
+        // Then:
+        lookups.forEach(lookup -> assertThat(lookup.join()).isPresent());
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void givenReturnedFamilyModified_whenFoundAgain_thenCachedFamilyUnchanged() {
+        // Given:
+        familyCache.put(new Family().setId("fam-1").setTitle("title"));
+        // When:
+        familyCache.findById("fam-1", this::fetch).orElseThrow().setTitle("changed");
+        // Then:
+        assertThat(familyCache.findById("fam-1", this::fetch).orElseThrow().getTitle()).isEqualTo("title");
+        assertThat(fetches.get()).isZero();
+    }
+
+    @Test
+    void givenEvictedFamily_whenFindById_thenFetchAgain() {
+        // Given:
+        familyCache.findById("fam-1", this::fetch);
+        // When:
+        familyCache.evict("fam-1");
+        familyCache.findById("fam-1", this::fetch);
+        // Then:
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    private Optional<Family> fetch(String familyId) {
+        fetches.incrementAndGet();
+        return Optional.of(new Family().setId(familyId));
+    }
+
+    private Optional<Family> slowFetch(String familyId, CountDownLatch release) {
+        try {
+            release.await(1, TimeUnit.SECONDS);
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return fetch(familyId);
+    }
+}
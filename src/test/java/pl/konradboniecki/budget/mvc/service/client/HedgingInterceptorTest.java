@@ -0,0 +1,184 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class HedgingInterceptorTest {
+
+    private static final URI JARS_URI = URI.create("http://localhost/api/budget-mgt/v1/budgets/1/jars");
+    private static final int MINIMUM_SAMPLES = 10;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger calls;
+    private List<TrackedResponse> responses;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        calls = new AtomicInteger();
+        responses = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterAll
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenSlowFirstAttempt_whenIntercept_thenHedgeWinsAndSlowResponseIsClosed() throws Exception {
+        // Given:
+        HedgingInterceptor interceptor = interceptorWithBudget(100);
+        warmUp(interceptor);
+        ClientHttpRequestExecution slowThenFast = execution(call -> call == MINIMUM_SAMPLES + 1 ? 1_000 : 0);
+        // When:
+        ClientHttpResponse response = interceptor.intercept(get(JARS_URI), new byte[0], slowThenFast);
+        // Then:
+        assertThat(calls).hasValue(MINIMUM_SAMPLES + 2);
+        assertThat(((TrackedResponse) response).call).isEqualTo(MINIMUM_SAMPLES + 2);
+        assertThat(meterRegistry.counter("budget.client.hedge.sent").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("budget.client.hedge.won").count()).isEqualTo(1);
+        TrackedResponse slowResponse = responseOfCall(MINIMUM_SAMPLES + 1);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!slowResponse.closed && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(slowResponse.closed).isTrue();
+    }
+
+    @Test
+    void givenSpentBudget_whenIntercept_thenWaitForFirstAttempt() throws Exception {
+        // Given:
+        HedgingInterceptor interceptor = interceptorWithBudget(0);
+        warmUp(interceptor);
+        ClientHttpRequestExecution slow = execution(call -> call == MINIMUM_SAMPLES + 1 ? 200 : 0);
+        // When:
+        ClientHttpResponse response = interceptor.intercept(get(JARS_URI), new byte[0], slow);
+        // Then:
+        assertThat(calls).hasValue(MINIMUM_SAMPLES + 1);
+        assertThat(((TrackedResponse) response).call).isEqualTo(MINIMUM_SAMPLES + 1);
+        assertThat(meterRegistry.counter("budget.client.hedge.rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void givenSpentBudget_whenIntercept_thenFirstAttemptRunsOnCallingThread() throws Exception {
+        // Given:
+        HedgingInterceptor interceptor = interceptorWithBudget(0);
+        warmUp(interceptor);
+        AtomicReference<Thread> attemptThread = new AtomicReference<>();
+        ClientHttpRequestExecution recording = (request, body) -> {
+            attemptThread.set(Thread.currentThread());
+            return new TrackedResponse(calls.incrementAndGet());
+        };
+        // When:
+        interceptor.intercept(get(JARS_URI), new byte[0], recording);
+        // Then:
+        assertThat(attemptThread.get()).isSameAs(Thread.currentThread());
+        assertThat(meterRegistry.counter("budget.client.hedge.rejected").count()).isZero();
+    }
+
+    @Test
+    void givenPost_whenIntercept_thenNeverHedge() throws Exception {
+        // Given:
+        HedgingInterceptor interceptor = interceptorWithBudget(100);
+        warmUp(interceptor);
+        ClientHttpRequestExecution slow = execution(call -> 100);
+        // When:
+        interceptor.intercept(new MockClientHttpRequest(HttpMethod.POST, JARS_URI), new byte[0], slow);
+        // Then:
+        assertThat(calls).hasValue(MINIMUM_SAMPLES + 1);
+        assertThat(meterRegistry.counter("budget.client.hedge.sent").count()).isZero();
+    }
+
+    @Test
+    void givenIdsInPath_whenEndpointOf_thenIdsAreFolded() {
+        // When:
+        String byNumber = EndpointLatencies.endpointOf("GET", URI.create("http://gw/api/budget-mgt/v1/budgets/12/jars"));
+        String byUuid = EndpointLatencies.endpointOf("GET", URI.create(
+                "http://gw/api/budget-mgt/v1/budgets/3f0c7a32-1b2c-4d5e-8f90-1234567890ab/jars?x=1"));
+        String byEmail = EndpointLatencies.endpointOf("GET", URI.create("http://gw/api/account-mgt/v1/accounts/a@b.pl"));
+        // Then:
+        assertThat(byNumber).isEqualTo("GET /api/budget-mgt/v1/budgets/{id}/jars");
+        assertThat(byUuid).isEqualTo(byNumber);
+        assertThat(byEmail).isEqualTo("GET /api/account-mgt/v1/accounts/{id}");
+    }
+
+    private HedgingInterceptor interceptorWithBudget(double budgetPercent) {
+        return new HedgingInterceptor(new EndpointLatencies(64), new HedgeBudget(budgetPercent, 5), executor,
+                0.9, MINIMUM_SAMPLES, Duration.ofMillis(20), meterRegistry);
+    }
+
+    private void warmUp(HedgingInterceptor interceptor) throws Exception {
+        ClientHttpRequestExecution fast = execution(call -> 0);
+        for (int i = 0; i < MINIMUM_SAMPLES; i++) {
+            interceptor.intercept(get(JARS_URI), new byte[0], fast).close();
+        }
+    }
+
+    private ClientHttpRequestExecution execution(DelayOfCall delayOfCall) {
+        return (request, body) -> {
+            int call = calls.incrementAndGet();
+            TrackedResponse response = new TrackedResponse(call);
+            responses.add(response);
+            try {
+                Thread.sleep(delayOfCall.millis(call));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return response;
+        };
+    }
+
+    private TrackedResponse responseOfCall(int call) {
+        return responses.stream()
+                .filter(response -> response.call == call)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static MockClientHttpRequest get(URI uri) {
+        return new MockClientHttpRequest(HttpMethod.GET, uri);
+    }
+
+    private interface DelayOfCall {
+        long millis(int call);
+    }
+
+    private static class TrackedResponse extends MockClientHttpResponse {
+        private final int call;
+        private volatile boolean closed;
+
+        TrackedResponse(int call) {
+            super(new byte[0], HttpStatus.OK);
+            this.call = call;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+import static pl.konradboniecki.budget.mvc.service.client.NegativeLookupCache.ACCOUNTS_BY_EMAIL;
+
+@TestInstance(PER_CLASS)
+class NegativeLookupCacheTest {
+
+    private static final String EMAIL = "new@mail.com";
+
+    private SimpleMeterRegistry meterRegistry;
+    private NegativeLookupCache negativeLookupCache;
+    private AtomicInteger fetches;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        negativeLookupCache = new NegativeLookupCache(meterRegistry, 100, Duration.ofMinutes(1));
+        fetches = new AtomicInteger();
+    }
+
+    @Test
+    void givenMiss_whenLookedUpAgain_thenServedWithoutFetch() {
+        // Given:
+        negativeLookupCache.find(ACCOUNTS_BY_EMAIL, EMAIL, () -> fetch(Optional.empty()));
+        // When:
+        Optional<String> result = negativeLookupCache.find(ACCOUNTS_BY_EMAIL, EMAIL, () -> fetch(Optional.of("acc")));
+        // Then:
+        assertThat(result).isEmpty();
+        assertThat(fetches).hasValue(1);
+        assertThat(meterRegistry.get("budget.cache.negative.hits").tag("cache", ACCOUNTS_BY_EMAIL)
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void givenMiss_whenInvalidated_thenFetchedAgain() {
+        // Given:
+        negativeLookupCache.find(ACCOUNTS_BY_EMAIL, EMAIL, () -> fetch(Optional.empty()));
+        // When:
+        negativeLookupCache.invalidate(ACCOUNTS_BY_EMAIL, EMAIL);
+        Optional<String> result = negativeLookupCache.find(ACCOUNTS_BY_EMAIL, EMAIL, () -> fetch(Optional.of("acc")));
+        // Then:
+        assertThat(result).contains("acc");
+        assertThat(fetches).hasValue(2);
+    }
+
+    @Test
+    void givenInvalidationDuringFetch_whenMissed_thenMissNotStored() {
+        // Given:
+        negativeLookupCache.find(ACCOUNTS_BY_EMAIL, EMAIL, () -> {
+            negativeLookupCache.invalidate(ACCOUNTS_BY_EMAIL, EMAIL);
+            return fetch(Optional.empty());
+        });
+        // When:
+        Optional<String> result = negativeLookupCache.find(ACCOUNTS_BY_EMAIL, EMAIL, () -> fetch(Optional.of("acc")));
+        // Then:
+        assertThat(result).contains("acc");
+        assertThat(fetches).hasValue(2);
+    }
+
+    @Test
+    void givenFoundEntity_whenLookedUpAgain_thenNotServedAsMiss() {
+        // Given:
+        negativeLookupCache.find(ACCOUNTS_BY_EMAIL, EMAIL, () -> fetch(Optional.of("acc")));
+        // When:
+        negativeLookupCache.find(ACCOUNTS_BY_EMAIL, EMAIL, () -> fetch(Optional.of("acc")));
+        // Then:
+        assertThat(fetches).hasValue(2);
+    }
+
+    private Optional<String> fetch(Optional<String> result) {
+        fetches.incrementAndGet();
+        return result;
+    }
+}
@@ -0,0 +1,89 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import pl.konradboniecki.budget.mvc.model.Family;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@TestInstance(PER_CLASS)
+class NotFoundAsEmptyTest {
+
+    private static final String FAMILY_URL = "http://localhost/api/family-mgt/v1/families/1";
+
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+    private RestTemplate lookupTemplate;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        lookupTemplate = NotFoundAsEmpty.tolerantCopyOf(restTemplate);
+    }
+
+    @Test
+    void givenNotFound_whenLookup_thenEmptyWithoutException() {
+        // Given:
+        server.expect(requestTo(FAMILY_URL)).andRespond(withStatus(HttpStatus.NOT_FOUND));
+        // When:
+        Optional<Family> family = lookup();
+        // Then:
+        assertThat(family).isEmpty();
+        server.verify();
+    }
+
+    @Test
+    void givenFound_whenLookup_thenBodyDecoded() {
+        // Given:
+        server.expect(requestTo(FAMILY_URL))
+                .andRespond(withSuccess("{\"id\":\"1\",\"title\":\"home\"}", MediaType.APPLICATION_JSON));
+        // When:
+        Optional<Family> family = lookup();
+        // Then:
+        assertThat(family).hasValueSatisfying(found -> assertThat(found.getTitle()).isEqualTo("home"));
+    }
+
+    @Test
+    void givenOtherErrors_whenLookup_thenStillThrown() {
+        // Given:
+        server.expect(requestTo(FAMILY_URL)).andRespond(withStatus(HttpStatus.BAD_REQUEST));
+        server.expect(requestTo(FAMILY_URL)).andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+        // When:
+        Throwable badRequest = catchThrowable(this::lookup);
+        Throwable serverError = catchThrowable(this::lookup);
+        // Then:
+        assertThat(badRequest).isInstanceOf(HttpClientErrorException.BadRequest.class);
+        assertThat(serverError).isInstanceOf(HttpServerErrorException.class);
+    }
+
+    @Test
+    void givenNotFound_whenSharedTemplateUsed_thenStillThrown() {
+        // Given:
+        server.expect(requestTo(FAMILY_URL)).andRespond(withStatus(HttpStatus.NOT_FOUND));
+        // When:
+        Throwable throwable = catchThrowable(() -> restTemplate.getForObject(FAMILY_URL, Family.class));
+        // Then:
+        assertThat(throwable).isInstanceOf(HttpClientErrorException.NotFound.class);
+    }
+
+    private Optional<Family> lookup() {
+        return lookupTemplate.execute(FAMILY_URL, HttpMethod.GET, null,
+                NotFoundAsEmpty.bodyOf(Family.class, lookupTemplate));
+    }
+}
@@ -0,0 +1,122 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import pl.konradboniecki.budget.mvc.model.Invitation;
+import pl.konradboniecki.budget.mvc.model.ResultPage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class PagedItemsDecoderTest {
+
+    private static final String PAGE = "{\"meta\":{\"page\":0,\"items\":[1]},\"items\":["
+            + "{\"id\":\"1\",\"familyId\":\"f1\",\"email\":\"a@mail.com\",\"invitationCode\":\"c1\","
+            + "\"created\":\"2019-06-16T10:22:54.246625Z\",\"registered\":true,\"extra\":{\"nested\":[1,2]}},"
+            + "null,"
+            + "{\"id\":\"2\",\"familyId\":\"f2\",\"email\":\"b@mail.com\",\"created\":\"2019-06-16T10:22:54\","
+            + "\"registered\":null}]}";
+
+    @Test
+    void givenPageWithNullAndUnknownFields_whenDecodeList_thenOnlyItemsMapped() throws IOException {
+        // When:
+        List<Invitation> invitations = PagedItemsDecoder.decodeList(body(PAGE), FamilyManagementClient::readInvitation);
+        // Then:
+        assertThat(invitations).hasSize(2);
+        Invitation first = invitations.get(0);
+        Invitation second = invitations.get(1);
+        assertAll(
+                () -> assertThat(first.getId()).isEqualTo("1"),
+                () -> assertThat(first.getFamilyId()).isEqualTo("f1"),
+                () -> assertThat(first.getEmail()).isEqualTo("a@mail.com"),
+                () -> assertThat(first.getInvitationCode()).isEqualTo("c1"),
+                () -> assertThat(first.getCreated()).isEqualTo(Instant.parse("2019-06-16T10:22:54.246625Z")),
+                () -> assertThat(first.getRegistered()).isTrue(),
+                () -> assertThat(second.getId()).isEqualTo("2"),
+                () -> assertThat(second.getCreated()).isEqualTo(Instant.parse("2019-06-16T10:22:54Z")),
+                () -> assertThat(second.getRegistered()).isNull()
+        );
+    }
+
+    @Test
+    void givenMatchingFirstItem_whenDecodeFirst_thenStopReading() throws IOException {
+        // Given:
+        AtomicInteger reads = new AtomicInteger();
+        // When:
+        Optional<Invitation> invitation = PagedItemsDecoder.decodeFirst(body(PAGE), parser -> {
+            reads.incrementAndGet();
+            return FamilyManagementClient.readInvitation(parser);
+        }, candidate -> true);
+        // Then:
+        assertThat(invitation).hasValueSatisfying(found -> assertThat(found.getId()).isEqualTo("1"));
+        assertThat(reads).hasValue(1);
+    }
+
+    @Test
+    void givenNoMatch_whenDecodeFirst_thenEmpty() throws IOException {
+        // When:
+        Optional<Invitation> invitation = PagedItemsDecoder.decodeFirst(body(PAGE),
+                FamilyManagementClient::readInvitation, candidate -> "none@mail.com".equals(candidate.getEmail()));
+        // Then:
+        assertThat(invitation).isEmpty();
+    }
+
+    @Test
+    void givenEmptyBodyOrNoItems_whenDecodeList_thenEmptyList() throws IOException {
+        // Then:
+        assertThat(PagedItemsDecoder.decodeList(body(""), FamilyManagementClient::readInvitation)).isEmpty();
+        assertThat(PagedItemsDecoder.decodeList(body("{\"items\":null}"), FamilyManagementClient::readInvitation)).isEmpty();
+        assertThat(PagedItemsDecoder.decodeList(body("{\"meta\":{}}"), FamilyManagementClient::readInvitation)).isEmpty();
+    }
+
+    @Test
+    void givenMetaAfterItems_whenDecodePage_thenTotalsRead() throws IOException {
+        // Given:
+        String json = "{\"items\":[{\"id\":\"1\"},{\"id\":\"2\"}],"
+                + "\"meta\":{\"page\":3,\"limit\":2,\"elements\":9,\"totalPages\":5}}";
+        // When:
+        ResultPage<Invitation> page = PagedItemsDecoder.decodePage(body(json),
+                FamilyManagementClient::readInvitation, 0, 10);
+        // Then:
+        assertAll(
+                () -> assertThat(page.getItems()).extracting(Invitation::getId).containsExactly("1", "2"),
+                () -> assertThat(page.getPage()).isEqualTo(3),
+                () -> assertThat(page.getPageSize()).isEqualTo(2),
+                () -> assertThat(page.getTotalElements()).isEqualTo(9),
+                () -> assertThat(page.getTotalPages()).isEqualTo(5),
+                () -> assertThat(page.hasPrevious()).isTrue(),
+                () -> assertThat(page.hasNext()).isTrue()
+        );
+    }
+
+    @Test
+    void givenNoMeta_whenDecodePage_thenRequestedPagingKept() throws IOException {
+        // When:
+        ResultPage<Invitation> page = PagedItemsDecoder.decodePage(body(PAGE.replace("\"meta\"", "\"other\"")),
+                FamilyManagementClient::readInvitation, 1, 2);
+        // Then:
+        assertAll(
+                () -> assertThat(page.getItems()).hasSize(2),
+                () -> assertThat(page.getPage()).isEqualTo(1),
+                () -> assertThat(page.getPageSize()).isEqualTo(2),
+                () -> assertThat(page.getTotalPages()).isEqualTo(-1),
+                () -> assertThat(page.hasNext()).isTrue(),
+                () -> assertThat(page.getFirstItemNumber()).isEqualTo(3)
+        );
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class PrefetchTrackerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void givenPrefetchedKeys_whenReadInRequestOnce_thenUsedCountedOnce() {
+        // Given:
+        PrefetchTracker prefetchTracker = new PrefetchTracker(meterRegistry, Duration.ofMinutes(5));
+        prefetchTracker.record(() -> {
+            prefetchTracker.fetched("family:1");
+            prefetchTracker.fetched("jar:b1:all");
+        });
+        // When:
+        prefetchTracker.read("family:1");
+        prefetchTracker.read("family:1");
+        prefetchTracker.read("expense:b1:all");
+        // Then:
+        assertThat(count("prefetched")).isEqualTo(2);
+        assertThat(count("used")).isEqualTo(1);
+        assertThat(count("wasted")).isZero();
+    }
+
+    @Test
+    void givenPrefetchedKey_whenLookedUpOutsideRequest_thenNotCountedAsUsed() {
+        // Given:
+        PrefetchTracker prefetchTracker = new PrefetchTracker(meterRegistry, Duration.ofMinutes(5));
+        RequestIdentityMap requestIdentityMap = newRequestIdentityMap(prefetchTracker);
+        RequestContextHolder.resetRequestAttributes();
+        prefetchTracker.record(() -> requestIdentityMap.lookup("family:1",
+                () -> requestIdentityMap.shared("family:1", () -> "family")));
+        // When:
+        requestIdentityMap.lookup("family:1", () -> "family");
+        // Then:
+        assertThat(count("prefetched")).isEqualTo(1);
+        assertThat(count("used")).isZero();
+    }
+
+    @Test
+    void givenEntryAlreadyCached_whenPrefetched_thenNotCountedAsPrefetched() {
+        // Given:
+        PrefetchTracker prefetchTracker = new PrefetchTracker(meterRegistry, Duration.ofMinutes(5));
+        RequestIdentityMap requestIdentityMap = newRequestIdentityMap(prefetchTracker);
+        RequestContextHolder.resetRequestAttributes();
+        // When:
+        prefetchTracker.record(() -> requestIdentityMap.lookup("family:1", () -> "cached family"));
+        // Then:
+        assertThat(count("prefetched")).isZero();
+    }
+
+    @Test
+    void givenPrefetchedKey_whenWindowEndsUnread_thenWastedCounted() throws InterruptedException {
+        // Given:
+        PrefetchTracker prefetchTracker = new PrefetchTracker(meterRegistry, Duration.ofMillis(20));
+        prefetchTracker.record(() -> prefetchTracker.fetched("family:1"));
+        // When:
+        Thread.sleep(50);
+        prefetchTracker.cleanUp();
+        prefetchTracker.read("family:1");
+        // Then:
+        assertThat(count("wasted")).isEqualTo(1);
+        assertThat(count("used")).isZero();
+    }
+
+    private RequestIdentityMap newRequestIdentityMap(PrefetchTracker prefetchTracker) {
+        return new RequestIdentityMap(meterRegistry, new SingleFlight(meterRegistry), prefetchTracker);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("budget.prefetch.entries").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,69 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@TestInstance(PER_CLASS)
+class RequestCallLogTest {
+
+    private MockHttpServletRequest servletRequest;
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        servletRequest = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(servletRequest));
+        restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(new CallAccountingInterceptor()));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenCallsToSameEndpoint_whenRecorded_thenCountedPerEndpoint() {
+        // Given:
+        RequestCallLog.attach(servletRequest);
+        server.expect(once(), requestTo("http://localhost/api/family-mgt/v1/families/1")).andRespond(withSuccess());
+        server.expect(once(), requestTo("http://localhost/api/family-mgt/v1/families/2")).andRespond(withSuccess());
+        server.expect(once(), requestTo("http://localhost/api/account-mgt/v1/accounts/3")).andRespond(withSuccess());
+        // When:
+        restTemplate.getForEntity("http://localhost/api/family-mgt/v1/families/1", String.class);
+        restTemplate.getForEntity("http://localhost/api/family-mgt/v1/families/2", String.class);
+        restTemplate.getForEntity("http://localhost/api/account-mgt/v1/accounts/3", String.class);
+        // Then:
+        RequestCallLog callLog = RequestCallLog.of(servletRequest).orElseThrow();
+        assertThat(callLog.totalCalls()).isEqualTo(3);
+        assertThat(callLog.endpoints().get("GET /api/family-mgt/v1/families/{id}").getCount()).isEqualTo(2);
+        assertThat(callLog.serverTiming())
+                .startsWith("downstream;desc=\"3 calls\";dur=")
+                .contains("accountManagement;desc=\"1 calls\"")
+                .contains("familyManagement;desc=\"2 calls\"");
+        server.verify();
+    }
+
+    @Test
+    void givenNoCalls_whenOf_thenEmpty() {
+        // Then:
+        assertThat(RequestCallLog.of(servletRequest)).isEmpty();
+    }
+}
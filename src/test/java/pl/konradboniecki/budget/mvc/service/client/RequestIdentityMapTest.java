@@ -0,0 +1,113 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class RequestIdentityMapTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ServletRequestAttributes requestAttributes;
+    private RequestIdentityMap requestIdentityMap;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        requestIdentityMap = new RequestIdentityMap(meterRegistry, new SingleFlight(meterRegistry),
+                new PrefetchTracker(meterRegistry, Duration.ofMinutes(5)));
+        requestAttributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        requestIdentityMap.attach(requestAttributes);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenSameKeyTwiceInRequest_whenLookup_thenFetchOnce() {
+        // Given:
+        AtomicInteger calls = new AtomicInteger();
+        // When:
+        String first = requestIdentityMap.lookup("account:id:1", () -> "account-" + calls.incrementAndGet());
+        String second = requestIdentityMap.lookup("account:id:1", () -> "account-" + calls.incrementAndGet());
+        // Then:
+        assertThat(first).isEqualTo("account-1");
+        assertThat(second).isEqualTo("account-1");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(requestIdentityMap.avoidedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void givenWriteInRequest_whenLookupAgain_thenFetchFreshValue() {
+        // Given:
+        AtomicInteger calls = new AtomicInteger();
+        requestIdentityMap.lookup("jar:budget-1:all", calls::incrementAndGet);
+        // When:
+        requestIdentityMap.invalidateAfter(() -> "saved", "jar:budget-1:");
+        Integer afterWrite = requestIdentityMap.lookup("jar:budget-1:all", calls::incrementAndGet);
+        // Then:
+        assertThat(afterWrite).isEqualTo(2);
+        assertThat(requestIdentityMap.avoidedCalls()).isZero();
+    }
+
+    @Test
+    void givenNoRequest_whenLookup_thenAlwaysFetch() {
+        // Given:
+        RequestContextHolder.resetRequestAttributes();
+        AtomicInteger calls = new AtomicInteger();
+        // When:
+        requestIdentityMap.lookup("family:1", calls::incrementAndGet);
+        requestIdentityMap.lookup("family:1", calls::incrementAndGet);
+        // Then:
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void givenCompletedRequest_whenLookupFromWorker_thenFetchWithoutFailing() {
+        // Given:
+        requestAttributes.requestCompleted();
+        AtomicInteger calls = new AtomicInteger();
+        // When:
+        requestIdentityMap.lookup("family:1", calls::incrementAndGet);
+        requestIdentityMap.lookup("family:1", calls::incrementAndGet);
+        // Then:
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void givenCompletedRequest_whenDestroyed_thenAvoidedCallsRecorded() {
+        // Given:
+        requestIdentityMap.lookup("budget:family:1", () -> "budget");
+        requestIdentityMap.lookup("budget:family:1", () -> "budget");
+        // When:
+        requestAttributes.requestCompleted();
+        // Then:
+        assertThat(meterRegistry.get("budget.client.request.deduplicated").summary().totalAmount()).isEqualTo(1.0);
+    }
+
+    @Test
+    void givenCopyFunction_whenShared_thenCallerGetsOwnCopy() {
+        // Given:
+        List<String> fetched = new ArrayList<>(List.of("invitation"));
+        // When:
+        List<String> result = requestIdentityMap.shared("invitation:family:1", () -> fetched, ArrayList::new);
+        // Then:
+        assertThat(result).containsExactly("invitation").isNotSameAs(fetched);
+    }
+}
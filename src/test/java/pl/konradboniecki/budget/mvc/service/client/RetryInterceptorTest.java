@@ -0,0 +1,167 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@TestInstance(PER_CLASS)
+class RetryInterceptorTest {
+
+    private static final String JARS_URL = "http://localhost/api/budget-mgt/v1/budgets/1/jars";
+    private static final String BUDGETS_URL = "http://localhost/api/budget-mgt/v1/budgets";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void givenTransientServerError_whenGet_thenRetriedAndSucceeds() {
+        // Given:
+        RestTemplate restTemplate = restTemplate(new RetryBudget(1000, 0, 10), Map.of());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(once(), requestTo(JARS_URL)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        server.expect(once(), requestTo(JARS_URL)).andRespond(withSuccess());
+        // When:
+        ResponseEntity<String> response = restTemplate.getForEntity(JARS_URL, String.class);
+        // Then:
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(meterRegistry.get("budget.client.retries")
+                .tag("downstream", "budgetManagement")
+                .tag("reason", "503")
+                .counter().count()).isEqualTo(1);
+        server.verify();
+    }
+
+    @Test
+    void givenPersistentServerError_whenGet_thenFailAfterMaxAttempts() {
+        // Given:
+        RestTemplate restTemplate = restTemplate(new RetryBudget(1000, 0, 10), Map.of());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(times(3), requestTo(JARS_URL)).andRespond(withStatus(HttpStatus.BAD_GATEWAY));
+        // When:
+        Throwable throwable = catchThrowable(() -> restTemplate.getForEntity(JARS_URL, String.class));
+        // Then:
+        assertThat(throwable).isInstanceOf(HttpServerErrorException.BadGateway.class);
+        server.verify();
+    }
+
+    @Test
+    void givenPostWithoutIdempotencyKey_whenServerError_thenNotRetried() {
+        // Given:
+        RestTemplate restTemplate = restTemplate(new RetryBudget(1000, 0, 10), Map.of());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(once(), requestTo(BUDGETS_URL)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        // When:
+        Throwable throwable = catchThrowable(() -> restTemplate.postForEntity(BUDGETS_URL, "{}", String.class));
+        // Then:
+        assertThat(throwable).isInstanceOf(HttpServerErrorException.class);
+        server.verify();
+    }
+
+    @Test
+    void givenPostWithIdempotencyKey_whenServerError_thenRetried() {
+        // Given:
+        RestTemplate restTemplate = restTemplate(new RetryBudget(1000, 0, 10), Map.of());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(once(), requestTo(BUDGETS_URL)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        server.expect(once(), requestTo(BUDGETS_URL)).andExpect(method(HttpMethod.POST)).andRespond(withSuccess());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(RetryInterceptor.IDEMPOTENCY_KEY_HEADER, "key-1");
+        // When:
+        ResponseEntity<String> response = restTemplate.exchange(BUDGETS_URL, HttpMethod.POST,
+                new HttpEntity<>("{}", headers), String.class);
+        // Then:
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        server.verify();
+    }
+
+    @Test
+    void givenSpentRetryBudget_whenServerError_thenNotRetried() {
+        // Given:
+        RestTemplate restTemplate = restTemplate(new RetryBudget(0, 0, 10), Map.of());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(once(), requestTo(JARS_URL)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        // When:
+        Throwable throwable = catchThrowable(() -> restTemplate.getForEntity(JARS_URL, String.class));
+        // Then:
+        assertThat(throwable).isInstanceOf(HttpServerErrorException.ServiceUnavailable.class);
+        assertThat(meterRegistry.get("budget.client.retry.budget-exhausted").counter().count()).isEqualTo(1);
+        server.verify();
+    }
+
+    @Test
+    void givenRetriesTurnedOffForEndpoint_whenServerError_thenNotRetried() {
+        // Given:
+        RestTemplate restTemplate = restTemplate(new RetryBudget(1000, 0, 10),
+                Map.of("GET /api/budget-mgt/v1/budgets/{id}/jars", 1));
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(once(), requestTo(JARS_URL)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        // When:
+        Throwable throwable = catchThrowable(() -> restTemplate.getForEntity(JARS_URL, String.class));
+        // Then:
+        assertThat(throwable).isInstanceOf(HttpServerErrorException.class);
+        server.verify();
+    }
+
+    @Test
+    void givenAttemptInterceptorBelowRetry_whenRetried_thenEveryAttemptPassesThroughIt() {
+        // Given:
+        RestTemplate transport = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(transport).build();
+        server.expect(once(), requestTo(JARS_URL)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        server.expect(once(), requestTo(JARS_URL)).andRespond(withSuccess());
+        AtomicInteger attemptsSeen = new AtomicInteger();
+        AttemptInterceptor countingInterceptor = (request, body, execution) -> {
+            attemptsSeen.incrementAndGet();
+            return execution.execute(request, body);
+        };
+        RestTemplate restTemplate = new RestTemplate(AttemptInterceptor.layered(transport.getRequestFactory(),
+                List.of(retryInterceptor(new RetryBudget(1000, 0, 10), Map.of()), countingInterceptor)));
+        // When:
+        ResponseEntity<String> response = restTemplate.getForEntity(JARS_URL, String.class);
+        // Then:
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(attemptsSeen.get()).isEqualTo(2);
+        server.verify();
+    }
+
+    private RestTemplate restTemplate(RetryBudget budget, Map<String, Integer> maxAttemptsPerEndpoint) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(retryInterceptor(budget, maxAttemptsPerEndpoint)));
+        return restTemplate;
+    }
+
+    private RetryInterceptor retryInterceptor(RetryBudget budget, Map<String, Integer> maxAttemptsPerEndpoint) {
+        return new RetryInterceptor(budget, 3, Duration.ofMillis(1),
+                Duration.ofMillis(5), Set.of(HttpMethod.GET, HttpMethod.DELETE), Set.of(500, 502, 503, 504),
+                maxAttemptsPerEndpoint, meterRegistry);
+    }
+}
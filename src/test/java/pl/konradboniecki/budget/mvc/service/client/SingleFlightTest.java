@@ -0,0 +1,128 @@
+package pl.konradboniecki.budget.mvc.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class SingleFlightTest {
+
+    private static final String KEY = "jar:budget-1:all";
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight singleFlight;
+    private ExecutorService executor;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry);
+        executor = Executors.newFixedThreadPool(2);
+        calls = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenCallInFlight_whenSameKeyRead_thenResultShared() throws Exception {
+        // Given:
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<String>> leader = executor.submit(() -> singleFlight.execute(KEY, () -> slowCall(release)));
+        awaitInFlight();
+        // When:
+        Future<List<String>> follower = executor.submit(() -> singleFlight.execute(KEY, () -> slowCall(release)));
+        awaitCoalesced();
+        release.countDown();
+        // Then:
+        assertThat(leader.get(5, TimeUnit.SECONDS)).containsExactly("jar");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(leader.get());
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void givenLeaderFails_whenFollowerWaits_thenSameExceptionThrown() throws Exception {
+        // Given:
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> leader = executor.submit(() -> singleFlight.execute(KEY, () -> {
+            calls.incrementAndGet();
+            await(release);
+            throw new IllegalStateException("downstream failed");
+        }));
+        awaitInFlight();
+        Future<Object> follower = executor.submit(() -> singleFlight.execute(KEY, () -> "unused"));
+        awaitCoalesced();
+        // When:
+        release.countDown();
+        Throwable thrown = catchThrowable(() -> follower.get(5, TimeUnit.SECONDS));
+        // Then:
+        assertThat(thrown).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(catchThrowable(() -> leader.get(5, TimeUnit.SECONDS))).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void givenCallInFlight_whenForgotten_thenNextReadCallsAgain() throws Exception {
+        // Given:
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<String>> leader = executor.submit(() -> singleFlight.execute(KEY, () -> slowCall(release)));
+        awaitInFlight();
+        // When:
+        singleFlight.forget("jar:budget-1:");
+        List<String> afterWrite = singleFlight.execute(KEY, () -> {
+            calls.incrementAndGet();
+            return List.of("fresh");
+        });
+        release.countDown();
+        // Then:
+        assertThat(afterWrite).containsExactly("fresh");
+        assertThat(leader.get(5, TimeUnit.SECONDS)).containsExactly("jar");
+        assertThat(calls).hasValue(2);
+    }
+
+    private List<String> slowCall(CountDownLatch release) {
+        calls.incrementAndGet();
+        await(release);
+        return List.of("jar");
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.inFlightCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitCoalesced() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.find("budget.client.coalesced").counter() == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package pl.konradboniecki.budget.mvc.service.client.accountmanagement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import pl.konradboniecki.budget.mvc.model.Account;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class AccountCacheTest {
+
+    private AccountCache accountCache;
+    private AtomicInteger fetches;
+
+    @BeforeEach
+    void setUp() {
+        accountCache = new AccountCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        fetches = new AtomicInteger();
+    }
+
+    @Test
+    void givenAccountFetchedByEmail_whenFindById_thenServedFromCache() {
+        // Given:
+        Account account = enabledAccount();
+        accountCache.findByEmail("Test@Mail.com", () -> fetch(account));
+        // When:
+        Optional<Account> byId = accountCache.findById("acc-1", () -> fetch(account));
+        // Then:
+        assertThat(byId).contains(account);
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void givenDisabledAccount_whenFoundTwice_thenFetchedTwice() {
+        // Given:
+        Account account = enabledAccount().setEnabled(false);
+        // When:
+        accountCache.findById("acc-1", () -> fetch(account));
+        accountCache.findById("acc-1", () -> fetch(account));
+        // Then:
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void givenCachedAccount_whenEvictedById_thenEmailKeyRefetched() {
+        // Given:
+        Account account = enabledAccount();
+        accountCache.findById("acc-1", () -> fetch(account));
+        // When:
+        accountCache.evict("acc-1");
+        accountCache.findByEmail("test@mail.com", () -> fetch(account));
+        // Then:
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    private Optional<Account> fetch(Account account) {
+        fetches.incrementAndGet();
+        return Optional.of(account);
+    }
+
+    private static Account enabledAccount() {
+        return new Account()
+                .setId("acc-1")
+                .setEmail("test@mail.com")
+                .setEnabled(true);
+    }
+}
@@ -0,0 +1,60 @@
+package pl.konradboniecki.budget.mvc.service.client.accountmanagement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import pl.konradboniecki.budget.mvc.model.AccountPrincipal;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class VerifiedCredentialCacheTest {
+
+    private VerifiedCredentialCache verifiedCredentialCache;
+
+    @BeforeEach
+    void setUp() {
+        verifiedCredentialCache = new VerifiedCredentialCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(2));
+    }
+
+    @Test
+    void givenVerifiedCredentials_whenCheckedAgain_thenVerified() {
+        // Given:
+        verifiedCredentialCache.verified("test@mail.com", "hash", principal());
+        // When:
+        Optional<AccountPrincipal> verified = verifiedCredentialCache.findVerified("test@mail.com", "hash");
+        // Then:
+        assertThat(verified).map(AccountPrincipal::getId).contains("acc-1");
+        assertThat(verifiedCredentialCache.findAccountId("test@mail.com")).contains("acc-1");
+    }
+
+    @Test
+    void givenVerifiedCredentials_whenOtherPasswordChecked_thenNotVerified() {
+        // Given:
+        verifiedCredentialCache.verified("test@mail.com", "hash", principal());
+        // When:
+        Optional<AccountPrincipal> verified = verifiedCredentialCache.findVerified("test@mail.com", "other-hash");
+        // Then:
+        assertThat(verified).isEmpty();
+    }
+
+    @Test
+    void givenVerifiedCredentials_whenAccountEvicted_thenNotVerified() {
+        // Given:
+        verifiedCredentialCache.verified("test@mail.com", "hash", principal());
+        // When:
+        verifiedCredentialCache.evict("acc-1");
+        // Then:
+        assertThat(verifiedCredentialCache.findVerified("test@mail.com", "hash")).isEmpty();
+        assertThat(verifiedCredentialCache.findAccountId("test@mail.com")).isEmpty();
+    }
+
+    private static AccountPrincipal principal() {
+        return new AccountPrincipal("acc-1", "test@mail.com", null, true);
+    }
+}
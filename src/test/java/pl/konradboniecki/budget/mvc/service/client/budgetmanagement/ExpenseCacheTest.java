@@ -0,0 +1,198 @@
+package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.util.unit.DataSize;
+import pl.konradboniecki.budget.mvc.model.Expense;
+import pl.konradboniecki.budget.mvc.model.ResultPage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class ExpenseCacheTest {
+
+    private static final String BUDGET_ID = "budget-1";
+
+    private AtomicInteger fetches;
+
+    @BeforeEach
+    void setUp() {
+        fetches = new AtomicInteger();
+    }
+
+    @Test
+    void givenCachedList_whenExpenseSaved_thenAppendedWithoutFetch() {
+        // Given:
+        ExpenseCache expenseCache = newCache(100);
+        expenseCache.getAll(BUDGET_ID, id -> fetch(2));
+        // When:
+        expenseCache.added(BUDGET_ID, expense("new"));
+        List<Expense> expenses = expenseCache.getAll(BUDGET_ID, id -> fetch(2));
+        // Then:
+        assertThat(expenses).extracting(Expense::getId).containsExactly("exp-0", "exp-1", "new");
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void givenCachedList_whenExpenseDeleted_thenRemovedWithoutFetch() {
+        // Given:
+        ExpenseCache expenseCache = newCache(100);
+        expenseCache.getAll(BUDGET_ID, id -> fetch(2));
+        // When:
+        expenseCache.removed(BUDGET_ID, "exp-0");
+        List<Expense> expenses = expenseCache.getAll(BUDGET_ID, id -> fetch(2));
+        // Then:
+        assertThat(expenses).extracting(Expense::getId).containsExactly("exp-1");
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void givenListLongerThanLimit_whenGetAll_thenNotCached() {
+        // Given:
+        ExpenseCache expenseCache = newCache(2);
+        // When:
+        expenseCache.getAll(BUDGET_ID, id -> fetch(3));
+        expenseCache.getAll(BUDGET_ID, id -> fetch(3));
+        // Then:
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void givenCachedList_whenGetPage_thenSlicedWithoutFetch() {
+        // Given:
+        ExpenseCache expenseCache = newCache(100);
+        expenseCache.getAll(BUDGET_ID, id -> fetch(5));
+        // When:
+        ResultPage<Expense> page = expenseCache.getPage(BUDGET_ID, 1, 2, this::fetchPage);
+        // Then:
+        assertThat(page.getItems()).extracting(Expense::getId).containsExactly("exp-2", "exp-3");
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getTotalPages()).isEqualTo(3);
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void givenCachedPage_whenExpenseSaved_thenPageFetchedAgain() {
+        // Given:
+        ExpenseCache expenseCache = newCache(100);
+        expenseCache.getPage(BUDGET_ID, 0, 2, this::fetchPage);
+        expenseCache.getPage(BUDGET_ID, 0, 2, this::fetchPage);
+        // When:
+        expenseCache.added(BUDGET_ID, expense("new"));
+        expenseCache.getPage(BUDGET_ID, 0, 2, this::fetchPage);
+        // Then:
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void givenFailingFetch_whenGetPageAndGetAll_thenNothingCached() {
+        // Given:
+        ExpenseCache expenseCache = newCache(100);
+        // When:
+        Throwable pageFailure = catchThrowable(() -> expenseCache.getPage(BUDGET_ID, 0, 2, (id, page, size) -> {
+            throw new IllegalStateException("downstream failed");
+        }));
+        Throwable listFailure = catchThrowable(() -> expenseCache.getAll(BUDGET_ID, id -> {
+            throw new IllegalStateException("downstream failed");
+        }));
+        expenseCache.getPage(BUDGET_ID, 0, 2, this::fetchPage);
+        expenseCache.getAll(BUDGET_ID, id -> fetch(3));
+        // Then:
+        assertThat(pageFailure).isInstanceOf(IllegalStateException.class);
+        assertThat(listFailure).isInstanceOf(IllegalStateException.class);
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void givenFetchStartedBeforeWrite_whenFinishedAfterIt_thenFetchedListNotCached() {
+        // Given:
+        ExpenseCache expenseCache = newCache(100);
+        // When:
+        expenseCache.getAll(BUDGET_ID, id -> {
+            List<Expense> beforeSave = fetch(2);
+            expenseCache.added(BUDGET_ID, expense("new"));
+            return beforeSave;
+        });
+        List<Expense> expenses = expenseCache.getAll(BUDGET_ID, id -> {
+            List<Expense> afterSave = fetch(2);
+            afterSave.add(expense("new"));
+            return afterSave;
+        });
+        // Then:
+        assertThat(expenses).extracting(Expense::getId).containsExactly("exp-0", "exp-1", "new");
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void givenPageFetchStartedBeforeDelete_whenFinishedAfterIt_thenFetchedPageNotCached() {
+        // Given:
+        ExpenseCache expenseCache = newCache(100);
+        // When:
+        expenseCache.getPage(BUDGET_ID, 0, 2, (id, page, size) -> {
+            ResultPage<Expense> beforeDelete = fetchPage(id, page, size);
+            expenseCache.removed(BUDGET_ID, "exp-0");
+            return beforeDelete;
+        });
+        expenseCache.getPage(BUDGET_ID, 0, 2, this::fetchPage);
+        // Then:
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void givenListWithSavedExpense_whenAdded_thenNotDuplicated() {
+        // Given:
+        ExpenseCache expenseCache = newCache(100);
+        expenseCache.getAll(BUDGET_ID, id -> fetch(2));
+        // When:
+        expenseCache.added(BUDGET_ID, expense("exp-0").setComment("saved"));
+        List<Expense> expenses = expenseCache.getAll(BUDGET_ID, id -> fetch(2));
+        // Then:
+        assertThat(expenses).extracting(Expense::getId).containsExactly("exp-0", "exp-1");
+        assertThat(expenses.get(0).getComment()).isEqualTo("saved");
+    }
+
+    @Test
+    void givenLongerComment_whenEstimated_thenWeighsMore() {
+        // Given:
+        List<Expense> shortComment = List.of(expense("exp").setComment("a"));
+        List<Expense> longComment = List.of(expense("exp").setComment("a".repeat(1000)));
+        // When:
+        int shortBytes = ExpenseCache.estimateBytes(shortComment);
+        int longBytes = ExpenseCache.estimateBytes(longComment);
+        // Then:
+        assertThat(longBytes - shortBytes).isEqualTo(999);
+    }
+
+    private ExpenseCache newCache(int maxExpensesPerBudget) {
+        return new ExpenseCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1),
+                maxExpensesPerBudget, Duration.ofMinutes(5));
+    }
+
+    private List<Expense> fetch(int count) {
+        fetches.incrementAndGet();
+        return IntStream.range(0, count)
+                .mapToObj(i -> expense("exp-" + i))
+                .collect(Collectors.toList());
+    }
+
+    private ResultPage<Expense> fetchPage(String budgetId, int page, int pageSize) {
+        return new ResultPage<>(fetch(pageSize), page, pageSize, -1, -1);
+    }
+
+    private static Expense expense(String id) {
+        return new Expense()
+                .setId(id)
+                .setBudgetId(BUDGET_ID)
+                .setAmount(1.0);
+    }
+}
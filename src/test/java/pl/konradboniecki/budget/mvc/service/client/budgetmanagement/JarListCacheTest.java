@@ -0,0 +1,156 @@
+package pl.konradboniecki.budget.mvc.service.client.budgetmanagement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import pl.konradboniecki.budget.mvc.model.Jar;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class JarListCacheTest {
+
+    private static final String BUDGET_ID = "budget-1";
+
+    private JarListCache jarListCache;
+    private AtomicInteger fetches;
+
+    @BeforeEach
+    void setUp() {
+        jarListCache = new JarListCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        fetches = new AtomicInteger();
+        jarListCache.getAll(BUDGET_ID, this::fetch);
+    }
+
+    @Test
+    void givenCachedList_whenJarSaved_thenAppendedWithoutFetch() {
+        // When:
+        jarListCache.added(BUDGET_ID, jar("jar-2", 0L));
+        List<Jar> jars = jarListCache.getAll(BUDGET_ID, this::fetch);
+        // Then:
+        assertThat(jars).extracting(Jar::getId).containsExactly("jar-1", "jar-2");
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void givenListLoadedAfterSave_whenJarAdded_thenNotDuplicated() {
+        // Given:
+        jarListCache.evict(BUDGET_ID);
+        jarListCache.getAll(BUDGET_ID, id -> List.of(jar("jar-1", 10L), jar("jar-2", 0L)));
+        // When:
+        jarListCache.added(BUDGET_ID, jar("jar-2", 0L));
+        List<Jar> jars = jarListCache.getAll(BUDGET_ID, this::fetch);
+        // Then:
+        assertThat(jars).extracting(Jar::getId).containsExactly("jar-1", "jar-2");
+    }
+
+    @Test
+    void givenLoadInProgress_whenJarAdded_thenAppliedToLoadedList() throws Exception {
+        // Given:
+        jarListCache.evict(BUDGET_ID);
+        CountDownLatch loading = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Jar>> load = executor.submit(() -> jarListCache.getAll(BUDGET_ID, id -> {
+                loading.countDown();
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of(jar("jar-1", 10L));
+            }));
+            assertThat(loading.await(2, TimeUnit.SECONDS)).isTrue();
+            // When:
+            jarListCache.added(BUDGET_ID, jar("jar-2", 0L));
+            load.get(2, TimeUnit.SECONDS);
+            List<Jar> jars = jarListCache.getAll(BUDGET_ID, this::fetch);
+            // Then:
+            assertThat(jars).extracting(Jar::getId).containsExactly("jar-1", "jar-2");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenCachedList_whenJarUpdated_thenReplacedWithoutFetch() {
+        // When:
+        jarListCache.updated(BUDGET_ID, jar("jar-1", 50L));
+        Optional<Jar> jar = jarListCache.find(BUDGET_ID, "jar-1", id -> Optional.empty());
+        // Then:
+        assertThat(jar).map(Jar::getCurrentAmount).contains(50L);
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void givenCachedList_whenJarRemoved_thenDroppedWithoutFetch() {
+        // When:
+        jarListCache.removed(BUDGET_ID, "jar-1");
+        List<Jar> jars = jarListCache.getAll(BUDGET_ID, this::fetch);
+        // Then:
+        assertThat(jars).isEmpty();
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void givenFailedUpdate_whenGetAll_thenFetchAgain() {
+        // When:
+        jarListCache.updated(BUDGET_ID, null);
+        jarListCache.getAll(BUDGET_ID, this::fetch);
+        // Then:
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void givenListSharedByCoalescedCallers_whenLoaded_thenCallerGetsOwnCopy() {
+        // Given:
+        List<Jar> sharedResult = List.of(jar("jar-3", 10L));
+        jarListCache.evict(BUDGET_ID);
+        // When:
+        List<Jar> jars = jarListCache.getAll(BUDGET_ID, id -> sharedResult);
+        jars.get(0).setCurrentAmount(99L);
+        // Then:
+        assertThat(sharedResult.get(0).getCurrentAmount()).isEqualTo(10L);
+        assertThat(jarListCache.getAll(BUDGET_ID, this::fetch).get(0).getCurrentAmount()).isEqualTo(10L);
+    }
+
+    @Test
+    void givenFailingFetch_whenGetAll_thenNothingCached() {
+        // Given:
+        jarListCache.evict(BUDGET_ID);
+        // When:
+        Throwable throwable = catchThrowable(() -> jarListCache.getAll(BUDGET_ID, id -> {
+            throw new IllegalStateException("downstream failed");
+        }));
+        List<Jar> jars = jarListCache.getAll(BUDGET_ID, this::fetch);
+        // Then:
+        assertThat(throwable).isInstanceOf(IllegalStateException.class);
+        assertThat(jars).extracting(Jar::getId).containsExactly("jar-1");
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    private List<Jar> fetch(String budgetId) {
+        fetches.incrementAndGet();
+        return List.of(jar("jar-1", 10L));
+    }
+
+    private static Jar jar(String id, Long currentAmount) {
+        return new Jar()
+                .setId(id)
+                .setBudgetId(BUDGET_ID)
+                .setCurrentAmount(currentAmount);
+    }
+}
@@ -83,6 +83,18 @@ class JarManagementClientTest {
         );
     }
 
+    @Test
+    void givenCachedJars_whenFindCurrent_thenReadFromDownstream() {
+        // Given:
+        String budgetId = "97f459b6-db3a-426a-9b3f-c40d589bc3a2";
+        String presentJarId = "8514d8b8-9c87-4909-be0c-bb03c78c0819";
+        jarManagementClient.getAllJarsFromBudgetWithId(budgetId);
+        // When:
+        Optional<Jar> jarO = jarManagementClient.findCurrentInBudgetById(budgetId, presentJarId);
+        // Then:
+        assertThat(jarO).map(Jar::getId).contains(presentJarId);
+    }
+
     @Test
     void givenBudgetWithoutJars_whenJarsNotFound_thenReturnEmptyList() {
         // Given: